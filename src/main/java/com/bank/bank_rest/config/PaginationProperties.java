@@ -0,0 +1,25 @@
+package com.bank.bank_rest.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "bank.pagination")
+public class PaginationProperties {
+    
+    /**
+     * Deepest row offset served by page-number listings; deeper pages must use the cursor endpoints.
+     */
+    private long maxOffset = 10_000;
+    
+    /**
+     * Largest page size accepted by the cursor endpoints.
+     */
+    private int maxCursorSize = 100;
+    
+    public boolean isTooDeep(int page, int size) {
+        return (long) page * size > maxOffset;
+    }
+}
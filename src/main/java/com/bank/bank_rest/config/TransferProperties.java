@@ -0,0 +1,109 @@
+package com.bank.bank_rest.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "bank.transfer")
+public class TransferProperties {
+    
+    /**
+     * How concurrent balance updates are isolated: row locks taken up front,
+     * or version checks at commit with a bounded retry.
+     */
+    private LockingMode lockingMode = LockingMode.PESSIMISTIC;
+    
+    private Retry retry = new Retry();
+    
+    private Batch batch = new Batch();
+    
+    private Stats stats = new Stats();
+    
+    private Idempotency idempotency = new Idempotency();
+    
+    private Engine engine = new Engine();
+    
+    public enum LockingMode {
+        PESSIMISTIC,
+        OPTIMISTIC
+    }
+    
+    @Data
+    public static class Retry {
+        private int maxAttempts = 5;
+        private Duration initialBackoff = Duration.ofMillis(10);
+        private Duration maxBackoff = Duration.ofMillis(200);
+    }
+    
+    @Data
+    public static class Batch {
+        private int maxSize = 1000;
+    }
+    
+    @Data
+    public static class Stats {
+        private Duration interval = Duration.ofMinutes(1);
+        /**
+         * Transfers younger than this are left for the next run, so a transaction that stamped
+         * its transfer_date before a faster one committed is not skipped by the watermark.
+         */
+        private Duration lag = Duration.ofMinutes(5);
+        private int chunkSize = 5000;
+        private int maxDays = 366;
+    }
+    
+    @Data
+    public static class Idempotency {
+        // Completed responses kept in memory, so most retries never reach the database
+        private long cacheSize = 100_000;
+        private Duration cacheTtl = Duration.ofMinutes(10);
+        // How long keys stay in the database; a retry after this runs as a new transfer
+        private Duration retention = Duration.ofHours(24);
+        private Duration cleanupInterval = Duration.ofMinutes(10);
+        private int cleanupBatchSize = 1000;
+    }
+    
+    @Data
+    public static class Engine {
+        // Off by default: POST /api/transfers/async is rejected until the shards are started
+        private boolean enabled = false;
+        private int shards = 4;
+        private int queueCapacity = 10_000;
+        // Most transfers committed in one transaction by a shard
+        private int batchSize = 256;
+        private int cachedCardsPerShard = 100_000;
+        /**
+         * COMMIT answers after the batch transaction; JOURNAL answers once the batch is forced to
+         * the transfer journal and leaves the database writes to a background flusher.
+         */
+        private Durability durability = Durability.COMMIT;
+        private Journal journal = new Journal();
+        
+        /**
+         * Acknowledged transfers may not be in the database yet, so card balances there are behind
+         * the engine's and nothing else may move money.
+         */
+        public boolean journaled() {
+            return enabled && durability == Durability.JOURNAL;
+        }
+    }
+    
+    public enum Durability {
+        COMMIT,
+        JOURNAL
+    }
+    
+    @Data
+    public static class Journal {
+        private String path = "data/transfer-journal.bin";
+        // Records the ring holds; appends wait for the flusher once that many are not in the database yet
+        private int capacity = 65_536;
+        private int flushChunkSize = 1000;
+        private Duration flushInterval = Duration.ofMillis(50);
+        private Duration appendTimeout = Duration.ofSeconds(5);
+    }
+}
@@ -1,28 +1,36 @@
 package com.bank.bank_rest.controller;
 
+import com.bank.bank_rest.config.PaginationProperties;
+import com.bank.bank_rest.dto.CursorPage;
 import com.bank.bank_rest.dto.card.CardCreateRequest;
 import com.bank.bank_rest.dto.card.CardFilterRequest;
+import com.bank.bank_rest.dto.card.CardLimitsRequest;
+import com.bank.bank_rest.dto.card.CardLimitsResponse;
 import com.bank.bank_rest.dto.card.CardResponse;
+import com.bank.bank_rest.dto.transfer.TransferEngineStatusResponse;
 import com.bank.bank_rest.dto.user.UserRegistrationRequest;
 import com.bank.bank_rest.dto.user.UserResponse;
 import com.bank.bank_rest.model.Card;
-import com.bank.bank_rest.model.User;
 import com.bank.bank_rest.model.enums.CardStatus;
 import com.bank.bank_rest.model.enums.Role;
 import com.bank.bank_rest.repository.CardRepository;
-import com.bank.bank_rest.repository.UserRepository;
 import com.bank.bank_rest.service.AuthService;
 import com.bank.bank_rest.service.CardService;
+import com.bank.bank_rest.service.ExportFormat;
+import com.bank.bank_rest.service.ExportService;
+import com.bank.bank_rest.service.TransferEngine;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/admin")
@@ -33,7 +41,9 @@ public class AdminController {
     
     private final AuthService authService;
     private final CardService cardService;
-    private final UserRepository userRepository;
+    private final ExportService exportService;
+    private final TransferEngine transferEngine;
+    private final PaginationProperties paginationProperties;
     
     @PostMapping("/users")
     @Operation(summary = "Create user", description = "Create a new user (Admin only)")
@@ -43,10 +53,57 @@ public class AdminController {
     }
     
     @GetMapping("/users")
-    @Operation(summary = "Get all users", description = "Get list of all users (Admin only)")
-    public ResponseEntity<List<User>> getAllUsers() {
-        List<User> users = userRepository.findAll();
-        return ResponseEntity.ok(users);
+    @Operation(summary = "Get users",
+            description = "Get users newest first; pass nextCursor back as 'after' for the next slice (Admin only)")
+    public ResponseEntity<?> getAllUsers(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size) {
+        if (size < 1) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Size must be positive"));
+        }
+        try {
+            CursorPage<UserResponse> users = authService.getUsers(
+                    after, Math.min(size, paginationProperties.getMaxCursorSize()));
+            return ResponseEntity.ok(users);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/users/export")
+    @Operation(summary = "Export users", description = "Stream every user as NDJSON (Admin only)")
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        StreamingResponseBody body = exportService::exportUsers;
+        return ResponseEntity.ok()
+                .contentType(ExportFormat.NDJSON.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.ndjson\"")
+                .body(body);
+    }
+    
+    @PutMapping("/users/{userId}/role")
+    @Operation(summary = "Update user role", description = "Change the role of a user (Admin only)")
+    public ResponseEntity<UserResponse> updateUserRole(
+            @PathVariable Long userId,
+            @RequestParam String role) {
+        
+        Role userRole;
+        try {
+            userRole = Role.valueOf(role.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        UserResponse user = authService.updateUserRole(userId, userRole);
+        return ResponseEntity.ok(user);
+    }
+    
+    @PutMapping("/users/{userId}/enabled")
+    @Operation(summary = "Enable or disable user", description = "Enable or disable a user account (Admin only)")
+    public ResponseEntity<UserResponse> updateUserEnabled(
+            @PathVariable Long userId,
+            @RequestParam boolean enabled) {
+        UserResponse user = authService.updateUserEnabled(userId, enabled);
+        return ResponseEntity.ok(user);
     }
     
     @PostMapping("/cards")
@@ -60,11 +117,16 @@ public class AdminController {
     
     @GetMapping("/cards")
     @Operation(summary = "Get all cards", description = "Get all cards (Admin only)")
-    public ResponseEntity<Page<CardResponse>> getAllCards(
+    public ResponseEntity<?> getAllCards(
             @RequestParam(required = false) String status,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         
+        if (paginationProperties.isTooDeep(page, size)) {
+            return ResponseEntity.badRequest().body(Map.of("error",
+                    "Page is too deep for offset pagination, use /api/cards/cursor"));
+        }
+        
         CardFilterRequest filter = new CardFilterRequest();
         if (status != null) {
             try {
@@ -97,6 +159,27 @@ public class AdminController {
         return ResponseEntity.ok(card);
     }
     
+    @PutMapping("/cards/{cardId}/limits")
+    @Operation(summary = "Update card limits",
+            description = "Set daily and monthly outgoing transfer limits of a card; null removes a limit (Admin only)")
+    public ResponseEntity<?> updateCardLimits(
+            @PathVariable Long cardId,
+            @Valid @RequestBody CardLimitsRequest request) {
+        try {
+            CardLimitsResponse limits = cardService.updateCardLimits(cardId, request);
+            return ResponseEntity.ok(limits);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/transfer-engine")
+    @Operation(summary = "Get transfer engine status",
+            description = "Queue depth, cached cards and committed batches per shard of the transfer engine (Admin only)")
+    public ResponseEntity<TransferEngineStatusResponse> getTransferEngineStatus() {
+        return ResponseEntity.ok(transferEngine.getStatus());
+    }
+    
     @DeleteMapping("/cards/{cardId}")
     @Operation(summary = "Delete card", description = "Delete a card (Admin only)")
     public ResponseEntity<Void> deleteCard(@PathVariable Long cardId) {
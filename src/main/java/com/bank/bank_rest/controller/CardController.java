@@ -1,10 +1,15 @@
 package com.bank.bank_rest.controller;
 
+import com.bank.bank_rest.config.PaginationProperties;
+import com.bank.bank_rest.dto.CursorPage;
+import com.bank.bank_rest.dto.card.CardBalanceSummaryResponse;
 import com.bank.bank_rest.dto.card.CardCreateRequest;
 import com.bank.bank_rest.dto.card.CardFilterRequest;
+import com.bank.bank_rest.dto.card.CardLimitsResponse;
 import com.bank.bank_rest.dto.card.CardResponse;
 import com.bank.bank_rest.model.User;
 import com.bank.bank_rest.model.enums.CardStatus;
+import com.bank.bank_rest.service.CardBalanceSummaryService;
 import com.bank.bank_rest.service.CardService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -16,6 +21,8 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/cards")
 @RequiredArgsConstructor
@@ -23,26 +30,25 @@ import org.springframework.web.bind.annotation.*;
 public class CardController {
     
     private final CardService cardService;
+    private final CardBalanceSummaryService cardBalanceSummaryService;
+    private final PaginationProperties paginationProperties;
     
     @GetMapping
-    @Operation(summary = "Get cards", description = "Get paginated list of cards with filtering")
-    public ResponseEntity<Page<CardResponse>> getCards(
+    @Operation(summary = "Get cards", description = "Get paginated list of cards with filtering; "
+            + "mockedNumber matches the last four digits exactly, or as a prefix when fewer digits are given")
+    public ResponseEntity<?> getCards(
             @RequestParam(required = false) String status,
             @RequestParam(required = false) String mockedNumber,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         
-        Long userId = getCurrentUserId();
-        CardFilterRequest filter = new CardFilterRequest();
-        
-        if (status != null) {
-            try {
-                filter.setStatus(CardStatus.valueOf(status.toUpperCase()));
-            } catch (IllegalArgumentException e) {
-                // Invalid status - ignore filter
-            }
+        if (paginationProperties.isTooDeep(page, size)) {
+            return ResponseEntity.badRequest().body(Map.of("error",
+                    "Page is too deep for offset pagination, use /api/cards/cursor"));
         }
-        filter.setMaskedNumber(mockedNumber);
+        
+        Long userId = getCurrentUserId();
+        CardFilterRequest filter = buildFilter(status, mockedNumber);
         filter.setPage(page);
         filter.setSize(size);
         
@@ -50,6 +56,39 @@ public class CardController {
         return ResponseEntity.ok(cards);
     }
     
+    @GetMapping("/cursor")
+    @Operation(summary = "Get cards by cursor",
+            description = "Get cards newest first; pass nextCursor back as 'after' for the next slice")
+    public ResponseEntity<?> getCardsByCursor(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String mockedNumber,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size) {
+        
+        if (size < 1) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Size must be positive"));
+        }
+        
+        Long userId = getCurrentUserId();
+        CardFilterRequest filter = buildFilter(status, mockedNumber);
+        filter.setSize(Math.min(size, paginationProperties.getMaxCursorSize()));
+        
+        try {
+            CursorPage<CardResponse> cards = cardService.getCardsAfter(filter, after, userId);
+            return ResponseEntity.ok(cards);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/summary")
+    @Operation(summary = "Get balance summary",
+            description = "Get card count and total balance per status, read from precomputed aggregates")
+    public ResponseEntity<CardBalanceSummaryResponse> getSummary() {
+        Long userId = getCurrentUserId();
+        return ResponseEntity.ok(cardBalanceSummaryService.getSummary(userId));
+    }
+    
     @GetMapping("/{cardId}")
     @Operation(summary = "Get card details", description = "Get details of a specific card")
     public ResponseEntity<CardResponse> getCard(@PathVariable Long cardId) {
@@ -58,6 +97,13 @@ public class CardController {
         return ResponseEntity.ok(card);
     }
     
+    @GetMapping("/{cardId}/limits")
+    @Operation(summary = "Get card limits", description = "Get transfer limits of a card and what was spent against them")
+    public ResponseEntity<CardLimitsResponse> getCardLimits(@PathVariable Long cardId) {
+        Long userId = getCurrentUserId();
+        return ResponseEntity.ok(cardService.getCardLimits(cardId, userId));
+    }
+    
     @PostMapping
     @Operation(summary = "Create card", description = "Create a new card")
     public ResponseEntity<CardResponse> createCard(@Valid @RequestBody CardCreateRequest request) {
@@ -92,6 +138,20 @@ public class CardController {
         return ResponseEntity.noContent().build();
     }
     
+    private CardFilterRequest buildFilter(String status, String mockedNumber) {
+        CardFilterRequest filter = new CardFilterRequest();
+        
+        if (status != null) {
+            try {
+                filter.setStatus(CardStatus.valueOf(status.toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                // Invalid status - ignore filter
+            }
+        }
+        filter.setMaskedNumber(mockedNumber);
+        return filter;
+    }
+    
     private Long getCurrentUserId() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         if (auth != null && auth.getPrincipal() instanceof User) {
@@ -1,20 +1,37 @@
 package com.bank.bank_rest.controller;
 
+import com.bank.bank_rest.config.PaginationProperties;
+import com.bank.bank_rest.dto.CursorPage;
+import com.bank.bank_rest.dto.transfer.BatchTransferRequest;
+import com.bank.bank_rest.dto.transfer.BatchTransferResponse;
 import com.bank.bank_rest.dto.transfer.TransferRequest;
 import com.bank.bank_rest.dto.transfer.TransferResponse;
+import com.bank.bank_rest.dto.transfer.TransferStatsResponse;
 import com.bank.bank_rest.model.User;
+import com.bank.bank_rest.service.ExportFormat;
+import com.bank.bank_rest.service.ExportService;
+import com.bank.bank_rest.service.SynchronousTransfersDisabledException;
+import com.bank.bank_rest.service.TransferEngine;
 import com.bank.bank_rest.service.TransferService;
+import com.bank.bank_rest.service.TransferStatsService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api/transfers")
@@ -23,14 +40,52 @@ import java.util.Map;
 public class TransferController {
     
     private final TransferService transferService;
+    private final ExportService exportService;
+    private final TransferStatsService transferStatsService;
+    private final TransferEngine transferEngine;
+    private final PaginationProperties paginationProperties;
     
     @PostMapping
-    @Operation(summary = "Make transfer", description = "Transfer money between own cards")
-    public ResponseEntity<?> makeTransfer(@Valid @RequestBody TransferRequest request) {
+    @Operation(summary = "Make transfer", description = "Transfer money between own cards; "
+            + "repeating a request with the same Idempotency-Key returns the first response without a second transfer")
+    public ResponseEntity<?> makeTransfer(
+            @Valid @RequestBody TransferRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         try {
             Long userId = getCurrentUserId();
-            TransferResponse transfer = transferService.transferMoney(request, userId);
+            TransferResponse transfer = transferService.transferMoney(request, userId, idempotencyKey);
             return ResponseEntity.ok(transfer);
+        } catch (SynchronousTransfersDisabledException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/async")
+    @Operation(summary = "Make transfer through the transfer engine",
+            description = "Queue a transfer between own cards on the sharded transfer engine; "
+                    + "the response is sent once the shard has committed it")
+    public CompletableFuture<ResponseEntity<?>> makeAsyncTransfer(@Valid @RequestBody TransferRequest request) {
+        Long userId = getCurrentUserId();
+        // The request thread is released here; the shard thread completes the response
+        return transferEngine.submit(request, userId)
+                .<ResponseEntity<?>>thenApply(ResponseEntity::ok)
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    return ResponseEntity.badRequest().body(Map.of("error", cause.getMessage()));
+                });
+    }
+    
+    @PostMapping("/batch")
+    @Operation(summary = "Make batch transfer", description = "Apply a list of transfers between own cards in one transaction")
+    public ResponseEntity<?> makeBatchTransfer(@Valid @RequestBody BatchTransferRequest request) {
+        try {
+            Long userId = getCurrentUserId();
+            BatchTransferResponse response = transferService.transferBatch(request.getTransfers(), userId);
+            return ResponseEntity.ok(response);
+        } catch (SynchronousTransfersDisabledException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
@@ -38,15 +93,87 @@ public class TransferController {
     
     @GetMapping
     @Operation(summary = "Get transfers", description = "Get user's transfer history")
-    public ResponseEntity<Page<TransferResponse>> getTransfers(
+    public ResponseEntity<?> getTransfers(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) Long cardId) {
+        if (paginationProperties.isTooDeep(page, size)) {
+            return ResponseEntity.badRequest().body(Map.of("error",
+                    "Page is too deep for offset pagination, use /api/transfers/cursor"));
+        }
         Long userId = getCurrentUserId();
         Page<TransferResponse> transfers = transferService.getTransfers(userId, page, size, cardId);
         return ResponseEntity.ok(transfers);
     }
     
+    @GetMapping("/cursor")
+    @Operation(summary = "Get transfers by cursor",
+            description = "Get user's transfer history newest first; pass nextCursor back as 'after' for the next slice")
+    public ResponseEntity<?> getTransfersByCursor(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) Long cardId) {
+        if (size < 1) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Size must be positive"));
+        }
+        try {
+            Long userId = getCurrentUserId();
+            CursorPage<TransferResponse> transfers = transferService.getTransfersAfter(
+                    userId, after, Math.min(size, paginationProperties.getMaxCursorSize()), cardId);
+            return ResponseEntity.ok(transfers);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/export")
+    @Operation(summary = "Export transfers",
+            description = "Stream the user's whole transfer history, newest first, as CSV or NDJSON")
+    public ResponseEntity<?> exportTransfers(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) Long cardId) {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Unsupported export format: " + format));
+        }
+        
+        Long userId = getCurrentUserId();
+        // Access is checked before streaming starts, while an error status can still be sent
+        if (cardId != null) {
+            try {
+                transferService.checkCardAccess(cardId, userId);
+            } catch (Exception e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+        }
+        
+        StreamingResponseBody body = out -> exportService.exportTransfers(userId, cardId, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"transfers." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+    
+    @GetMapping("/stats")
+    @Operation(summary = "Get transfer stats",
+            description = "Get daily transfer counts and volumes of the user or one card, from the rollup tables; "
+                    + "defaults to the last 30 days")
+    public ResponseEntity<?> getTransferStats(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long cardId) {
+        try {
+            Long userId = getCurrentUserId();
+            TransferStatsResponse stats = transferStatsService.getStats(userId, cardId, from, to);
+            return ResponseEntity.ok(stats);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
     @GetMapping("/{transferId}")
     @Operation(summary = "Get transfer details", description = "Get details of a specific transfer")
     public ResponseEntity<TransferResponse> getTransfer(@PathVariable Long transferId) {
@@ -0,0 +1,32 @@
+package com.bank.bank_rest.dto;
+
+import com.bank.bank_rest.util.KeysetCursor;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A slice of a keyset-paginated listing. {@code nextCursor} is passed back as {@code after}
+ * to fetch the following slice and is null on the last one; there is no total count.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> content;
+    private String nextCursor;
+    
+    /**
+     * Builds a page from up to {@code size + 1} rows: the extra row only signals that another page exists.
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, KeysetCursor> position) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> content = List.copyOf(rows.subList(0, size));
+        return new CursorPage<>(content, position.apply(content.get(size - 1)).encode());
+    }
+}
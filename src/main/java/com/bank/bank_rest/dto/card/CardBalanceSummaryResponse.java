@@ -0,0 +1,18 @@
+package com.bank.bank_rest.dto.card;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardBalanceSummaryResponse {
+    private Long ownerId;
+    private long cardCount;
+    private BigDecimal totalBalance;
+    private List<CardStatusTotal> byStatus;
+}
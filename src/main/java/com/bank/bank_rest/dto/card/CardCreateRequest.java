@@ -1,6 +1,7 @@
 package com.bank.bank_rest.dto.card;
 
 import com.bank.bank_rest.model.enums.CardStatus;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.PositiveOrZero;
@@ -28,5 +29,6 @@ public class CardCreateRequest {
     private CardStatus status = CardStatus.ACTIVE;
     
     @PositiveOrZero(message = "Initial balance must be positive or zero")
+    @Digits(integer = 13, fraction = 2, message = "Initial balance must have at most 13 integer digits and 2 decimal places")
     private BigDecimal initialBalance = BigDecimal.ZERO;
 }
@@ -0,0 +1,21 @@
+package com.bank.bank_rest.dto.card;
+
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardLimitsRequest {
+    
+    // Null removes the limit
+    @PositiveOrZero(message = "Daily limit must be positive or zero")
+    private BigDecimal dailyLimit;
+    
+    @PositiveOrZero(message = "Monthly limit must be positive or zero")
+    private BigDecimal monthlyLimit;
+}
@@ -0,0 +1,19 @@
+package com.bank.bank_rest.dto.card;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardLimitsResponse {
+    private Long cardId;
+    private BigDecimal dailyLimit;
+    private BigDecimal monthlyLimit;
+    // Spending is only tracked for cards with a limit, otherwise both are null
+    private BigDecimal spentToday;
+    private BigDecimal spentThisMonth;
+}
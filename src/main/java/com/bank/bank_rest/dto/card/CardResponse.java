@@ -1,11 +1,11 @@
 package com.bank.bank_rest.dto.card;
 
+import com.bank.bank_rest.model.Money;
 import com.bank.bank_rest.model.enums.CardStatus;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
@@ -18,10 +18,18 @@ public class CardResponse {
     private String cardHolderName;
     private LocalDate expiryDate;
     private CardStatus status;
-    private BigDecimal balance;
+    private Money balance;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private Long ownerId;
     private String ownerName;
     private boolean isExpired;
+    
+    // Used by the constructor expressions in CardRepository list queries
+    public CardResponse(Long id, String maskedNumber, String cardHolderName, LocalDate expiryDate,
+                        CardStatus status, Money balance, LocalDateTime createdAt,
+                        LocalDateTime updatedAt, Long ownerId, String ownerName) {
+        this(id, maskedNumber, cardHolderName, expiryDate, status, balance, createdAt, updatedAt,
+                ownerId, ownerName, LocalDate.now().isAfter(expiryDate));
+    }
 }
@@ -0,0 +1,17 @@
+package com.bank.bank_rest.dto.card;
+
+import com.bank.bank_rest.model.enums.CardStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardStatusTotal {
+    private CardStatus status;
+    private long cardCount;
+    private BigDecimal totalBalance;
+}
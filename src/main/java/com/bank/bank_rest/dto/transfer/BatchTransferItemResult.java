@@ -0,0 +1,15 @@
+package com.bank.bank_rest.dto.transfer;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTransferItemResult {
+    private int index;
+    private boolean successful;
+    private TransferResponse transfer;
+    private String error;
+}
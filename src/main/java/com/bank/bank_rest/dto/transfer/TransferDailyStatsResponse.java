@@ -0,0 +1,19 @@
+package com.bank.bank_rest.dto.transfer;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferDailyStatsResponse {
+    private LocalDate date;
+    private long outgoingCount;
+    private BigDecimal outgoingAmount;
+    private long incomingCount;
+    private BigDecimal incomingAmount;
+}
@@ -0,0 +1,18 @@
+package com.bank.bank_rest.dto.transfer;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferEngineShardStatus {
+    private int shard;
+    private int queued;
+    private int cachedCards;
+    private long committedBatches;
+    private long committedTransfers;
+    private long rejectedTransfers;
+    private long failedBatches;
+}
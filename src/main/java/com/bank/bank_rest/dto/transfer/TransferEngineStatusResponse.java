@@ -0,0 +1,15 @@
+package com.bank.bank_rest.dto.transfer;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferEngineStatusResponse {
+    private boolean running;
+    private List<TransferEngineShardStatus> shards;
+}
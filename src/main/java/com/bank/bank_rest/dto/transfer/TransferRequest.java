@@ -1,13 +1,12 @@
 package com.bank.bank_rest.dto.transfer;
 
-import jakarta.validation.constraints.DecimalMin;
+import com.bank.bank_rest.model.Money;
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
-
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -20,8 +19,13 @@ public class TransferRequest {
     private Long toCardId;
     
     @NotNull(message = "Amount is required")
-    @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
-    private BigDecimal amount;
+    private Money amount;
     
     private String description;
+    
+    // Takes the place of @DecimalMin, which only applies to numeric types
+    @AssertTrue(message = "Amount must be greater than 0")
+    private boolean isAmountPositive() {
+        return amount == null || amount.isPositive();
+    }
 }
@@ -1,10 +1,10 @@
 package com.bank.bank_rest.dto.transfer;
 
+import com.bank.bank_rest.model.Money;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
@@ -16,7 +16,7 @@ public class TransferResponse {
     private String fromCardNumber;
     private Long toCardId;
     private String toCardNumber;
-    private BigDecimal amount;
+    private Money amount;
     private String description;
     private LocalDateTime transferDate;
     private boolean successful;
@@ -0,0 +1,21 @@
+package com.bank.bank_rest.dto.transfer;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferStatsResponse {
+    private Long cardId;
+    private LocalDate from;
+    private LocalDate to;
+    // Transfers made after this moment are not counted yet
+    private LocalDateTime countedUpTo;
+    private List<TransferDailyStatsResponse> days;
+}
@@ -11,22 +11,36 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "cards")
+@Table(name = "cards", indexes = {
+        @Index(name = "ix_cards_owner_created", columnList = "owner_id, created_at, id"),
+        @Index(name = "ix_cards_owner_status_created", columnList = "owner_id, status, created_at"),
+        @Index(name = "ix_cards_created", columnList = "created_at, id"),
+        @Index(name = "ix_cards_owner_last4", columnList = "owner_id, last4")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Card {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cards_id_seq")
+    @SequenceGenerator(name = "cards_id_seq", sequenceName = "cards_id_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "encrypted_number", nullable = false, unique = true)
     private String encryptedNumber;
     
+    // Keyed hash of the card number (see CardEncryptionUtil.hashCardNumber), used for lookups
+    @Column(name = "number_hash", length = 64, unique = true)
+    private String numberHash;
+    
     @Column(name = "masked_number", nullable = false)
     private String maskedNumber;
     
+    // Last four digits of the number, kept separately so card search can use an index
+    @Column(name = "last4", length = 4, columnDefinition = "CHAR(4)")
+    private String last4;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "owner_id", nullable = false)
     private User owner;
@@ -42,7 +56,14 @@ public class Card {
     private CardStatus status = CardStatus.ACTIVE;
     
     @Column(nullable = false, precision = 15, scale = 2)
-    private BigDecimal balance = BigDecimal.ZERO;
+    private Money balance = Money.ZERO;
+    
+    // Outgoing transfer limits per calendar day and month; null means no limit
+    @Column(name = "daily_limit", precision = 15, scale = 2)
+    private BigDecimal dailyLimit;
+    
+    @Column(name = "monthly_limit", precision = 15, scale = 2)
+    private BigDecimal monthlyLimit;
     
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
@@ -50,10 +71,17 @@ public class Card {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    @Version
+    @Column(nullable = false)
+    private Long version;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
+        if (last4 == null && maskedNumber != null && maskedNumber.length() >= 4) {
+            last4 = maskedNumber.substring(maskedNumber.length() - 4);
+        }
     }
     
     @PreUpdate
@@ -69,6 +97,10 @@ public class Card {
         return status == CardStatus.ACTIVE && !isExpired();
     }
     
+    public boolean hasLimits() {
+        return dailyLimit != null || monthlyLimit != null;
+    }
+    
     public boolean canTransfer() {
         return isActive() && status != CardStatus.BLOCKED;
     }
@@ -0,0 +1,50 @@
+package com.bank.bank_rest.model;
+
+import com.bank.bank_rest.model.enums.CardStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Card count and total balance per owner and card status, kept up to date by
+ * CardBalanceSummaryService in the same transaction as the card change.
+ */
+@Entity
+@Table(name = "card_balance_summaries")
+@IdClass(CardBalanceSummary.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardBalanceSummary {
+    
+    @Id
+    @Column(name = "owner_id")
+    private Long ownerId;
+    
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 20)
+    private CardStatus status;
+    
+    @Column(name = "card_count", nullable = false)
+    private long cardCount;
+    
+    @Column(name = "total_balance", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalBalance;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long ownerId;
+        private CardStatus status;
+    }
+}
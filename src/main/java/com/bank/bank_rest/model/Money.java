@@ -0,0 +1,102 @@
+package com.bank.bank_rest.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An amount of money as a whole number of minor units (cents), matching the NUMERIC(15,2) columns.
+ * Balance checks and updates on the transfer path are plain long arithmetic; a BigDecimal is created
+ * only at the edges, for JSON and JDBC. Arithmetic fails on overflow instead of wrapping around.
+ */
+@Schema(type = "number", example = "100.00")
+public final class Money implements Comparable<Money> {
+    
+    public static final Money ZERO = new Money(0);
+    
+    private static final int SCALE = 2;
+    
+    private final long minorUnits;
+    
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+    
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+    
+    /**
+     * Converts a decimal amount; fractions of a cent are rejected rather than rounded.
+     */
+    @JsonCreator
+    public static Money of(BigDecimal amount) {
+        BigDecimal scaled;
+        try {
+            scaled = amount.setScale(SCALE, RoundingMode.UNNECESSARY);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount must have at most 2 decimal places");
+        }
+        try {
+            return ofMinor(scaled.unscaledValue().longValueExact());
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount is out of range");
+        }
+    }
+    
+    public static Money of(String amount) {
+        return of(new BigDecimal(amount));
+    }
+    
+    public long minorUnits() {
+        return minorUnits;
+    }
+    
+    public Money plus(Money other) {
+        return ofMinor(Math.addExact(minorUnits, other.minorUnits));
+    }
+    
+    public Money minus(Money other) {
+        return ofMinor(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+    
+    public Money negate() {
+        return ofMinor(Math.negateExact(minorUnits));
+    }
+    
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+    
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+    
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+    
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money other && minorUnits == other.minorUnits;
+    }
+    
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits);
+    }
+    
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
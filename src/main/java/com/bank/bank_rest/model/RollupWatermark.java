@@ -0,0 +1,36 @@
+package com.bank.bank_rest.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Position of an incremental rollup in its source table: the (date, id) of the last row it applied.
+ */
+@Entity
+@Table(name = "rollup_watermarks")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollupWatermark {
+    
+    @Id
+    @Column(name = "name", length = 64)
+    private String name;
+    
+    @Column(name = "last_date", nullable = false)
+    private LocalDateTime lastDate;
+    
+    @Column(name = "last_id", nullable = false)
+    private long lastId;
+    
+    // Every source row dated before this moment has been applied
+    @Column(name = "covered_until", nullable = false)
+    private LocalDateTime coveredUntil;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
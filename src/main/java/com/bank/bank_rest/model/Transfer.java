@@ -5,18 +5,22 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transfers")
+@Table(name = "transfers", indexes = {
+        @Index(name = "ix_transfers_from_card_date", columnList = "from_card_id, transfer_date, id"),
+        @Index(name = "ix_transfers_to_card_date", columnList = "to_card_id, transfer_date, id"),
+        @Index(name = "ix_transfers_date", columnList = "transfer_date, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Transfer {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transfers_id_seq")
+    @SequenceGenerator(name = "transfers_id_seq", sequenceName = "transfers_id_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -28,7 +32,7 @@ public class Transfer {
     private Card toCard;
     
     @Column(nullable = false, precision = 15, scale = 2)
-    private BigDecimal amount;
+    private Money amount;
     
     @Column(name = "transfer_date", nullable = false)
     private LocalDateTime transferDate;
@@ -39,6 +43,10 @@ public class Transfer {
     @Column(name = "successful")
     private boolean successful = true;
     
+    // Set for transfers flushed from the transfer journal, where they were acknowledged
+    @Column(name = "journal_seq", unique = true)
+    private Long journalSeq;
+    
     @PrePersist
     protected void onCreate() {
         transferDate = LocalDateTime.now();
@@ -0,0 +1,60 @@
+package com.bank.bank_rest.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Successful transfers of one card on one day, rolled up by TransferStatsRollup.
+ * owner_id is copied from the card so per-user stats read only this table.
+ */
+@Entity
+@Table(name = "transfer_daily_stats", indexes = {
+        @Index(name = "ix_transfer_daily_stats_owner_date", columnList = "owner_id, stat_date")
+})
+@IdClass(TransferDailyStats.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferDailyStats {
+    
+    @Id
+    @Column(name = "card_id")
+    private Long cardId;
+    
+    @Id
+    @Column(name = "stat_date")
+    private LocalDate statDate;
+    
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+    
+    @Column(name = "outgoing_count", nullable = false)
+    private long outgoingCount;
+    
+    @Column(name = "outgoing_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal outgoingAmount;
+    
+    @Column(name = "incoming_count", nullable = false)
+    private long incomingCount;
+    
+    @Column(name = "incoming_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal incomingAmount;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long cardId;
+        private LocalDate statDate;
+    }
+}
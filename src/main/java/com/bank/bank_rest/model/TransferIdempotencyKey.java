@@ -0,0 +1,53 @@
+package com.bank.bank_rest.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * An Idempotency-Key a user sent with POST /api/transfers, inserted in the same transaction
+ * as the transfer it guards and holding that transfer's response for replays.
+ */
+@Entity
+@Table(name = "transfer_idempotency_keys", indexes = {
+        @Index(name = "ix_transfer_idempotency_keys_created", columnList = "created_at")
+})
+@IdClass(TransferIdempotencyKey.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferIdempotencyKey {
+    
+    @Id
+    @Column(name = "owner_id")
+    private Long ownerId;
+    
+    @Id
+    @Column(name = "idempotency_key", length = 128)
+    private String idempotencyKey;
+    
+    // SHA-256 of the request, so a key reused for a different transfer is rejected
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+    
+    @Column(name = "transfer_id")
+    private Long transferId;
+    
+    @Column(name = "response", columnDefinition = "TEXT")
+    private String response;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long ownerId;
+        private String idempotencyKey;
+    }
+}
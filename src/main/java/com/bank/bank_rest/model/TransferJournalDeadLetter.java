@@ -0,0 +1,48 @@
+package com.bank.bank_rest.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A journaled transfer that was acknowledged but could not be applied to the database, kept for
+ * manual resolution instead of blocking every later record behind it. Written by TransferJournalFlusher.
+ */
+@Entity
+@Table(name = "transfer_journal_dead_letters")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferJournalDeadLetter {
+    
+    @Id
+    @Column(name = "journal_seq")
+    private Long journalSeq;
+    
+    @Column(name = "transfer_id", nullable = false)
+    private Long transferId;
+    
+    @Column(name = "from_card_id", nullable = false)
+    private Long fromCardId;
+    
+    @Column(name = "to_card_id", nullable = false)
+    private Long toCardId;
+    
+    @Column(nullable = false, precision = 15, scale = 2)
+    private Money amount;
+    
+    @Column(name = "transfer_date", nullable = false)
+    private LocalDateTime transferDate;
+    
+    @Column(name = "description")
+    private String description;
+    
+    @Column(name = "reason", nullable = false)
+    private String reason;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,50 @@
+package com.bank.bank_rest.repository;
+
+import com.bank.bank_rest.model.CardBalanceSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface CardBalanceSummaryRepository extends JpaRepository<CardBalanceSummary, CardBalanceSummary.Key> {
+    
+    List<CardBalanceSummary> findByOwnerIdOrderByStatus(Long ownerId);
+    
+    // Serializes summary writers of one owner with the reconciler until the transaction ends
+    @Query(value = "SELECT 1 FROM (SELECT pg_advisory_xact_lock(" + ADVISORY_LOCK_CLASS +
+                   ", CAST(MOD(:ownerId, 2147483647) AS INTEGER))) l", nativeQuery = true)
+    Integer lockOwner(@Param("ownerId") Long ownerId);
+    
+    @Modifying
+    @Query(value = "INSERT INTO card_balance_summaries (owner_id, status, card_count, total_balance, updated_at) " +
+                   "VALUES (:ownerId, :status, :countDelta, :balanceDelta, now()) " +
+                   "ON CONFLICT (owner_id, status) DO UPDATE SET " +
+                   "card_count = card_balance_summaries.card_count + EXCLUDED.card_count, " +
+                   "total_balance = card_balance_summaries.total_balance + EXCLUDED.total_balance, " +
+                   "updated_at = now()",
+           nativeQuery = true)
+    void applyDelta(@Param("ownerId") Long ownerId,
+                    @Param("status") String status,
+                    @Param("countDelta") long countDelta,
+                    @Param("balanceDelta") BigDecimal balanceDelta);
+    
+    @Modifying
+    @Query(value = "INSERT INTO card_balance_summaries (owner_id, status, card_count, total_balance, updated_at) " +
+                   "SELECT :ownerId, s.status, COALESCE(c.card_count, 0), COALESCE(c.total_balance, 0), now() " +
+                   "FROM (SELECT status FROM card_balance_summaries WHERE owner_id = :ownerId " +
+                   "      UNION SELECT status FROM cards WHERE owner_id = :ownerId) s " +
+                   "LEFT JOIN (SELECT status, COUNT(*) AS card_count, SUM(balance) AS total_balance " +
+                   "           FROM cards WHERE owner_id = :ownerId GROUP BY status) c ON c.status = s.status " +
+                   "ON CONFLICT (owner_id, status) DO UPDATE SET " +
+                   "card_count = EXCLUDED.card_count, total_balance = EXCLUDED.total_balance, updated_at = now()",
+           nativeQuery = true)
+    int recomputeOwner(@Param("ownerId") Long ownerId);
+    
+    // First key of the two-key advisory lock, reserved for card balance summaries
+    String ADVISORY_LOCK_CLASS = "1";
+}
@@ -1,15 +1,22 @@
 package com.bank.bank_rest.repository;
 
+import com.bank.bank_rest.dto.card.CardResponse;
 import com.bank.bank_rest.model.Card;
 import com.bank.bank_rest.model.User;
 import com.bank.bank_rest.model.enums.CardStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -17,20 +24,74 @@ public interface CardRepository extends JpaRepository<Card, Long> {
     Page<Card> findByOwnerId(Long ownerId, Pageable pageable);
     Page<Card> findByOwnerAndStatus(User owner, CardStatus status, Pageable pageable);
     
-    @Query("SELECT c FROM Card c WHERE c.owner.id = :ownerId " +
+    // List queries project straight into CardResponse with the owner joined, so a page costs
+    // one select plus the count instead of one extra users select per card
+    @Query(value = "SELECT new com.bank.bank_rest.dto.card.CardResponse(" +
+                   "c.id, c.maskedNumber, c.cardHolderName, c.expiryDate, c.status, c.balance, " +
+                   "c.createdAt, c.updatedAt, o.id, CONCAT(o.firstName, ' ', o.lastName)) " +
+                   "FROM Card c JOIN c.owner o WHERE o.id = :ownerId " +
+                   "AND (:status IS NULL OR c.status = :status) " +
+                   "AND (:last4 IS NULL OR c.last4 = :last4) " +
+                   "AND (:last4Prefix IS NULL OR c.last4 LIKE :last4Prefix%)",
+           countQuery = "SELECT COUNT(c) FROM Card c WHERE c.owner.id = :ownerId " +
+                        "AND (:status IS NULL OR c.status = :status) " +
+                        "AND (:last4 IS NULL OR c.last4 = :last4) " +
+                        "AND (:last4Prefix IS NULL OR c.last4 LIKE :last4Prefix%)")
+    Page<CardResponse> findResponsesByOwnerWithFilters(@Param("ownerId") Long ownerId,
+                                                       @Param("status") CardStatus status,
+                                                       @Param("last4") String last4,
+                                                       @Param("last4Prefix") String last4Prefix,
+                                                       Pageable pageable);
+    
+    @Query(value = "SELECT new com.bank.bank_rest.dto.card.CardResponse(" +
+                   "c.id, c.maskedNumber, c.cardHolderName, c.expiryDate, c.status, c.balance, " +
+                   "c.createdAt, c.updatedAt, o.id, CONCAT(o.firstName, ' ', o.lastName)) " +
+                   "FROM Card c JOIN c.owner o WHERE (:status IS NULL OR c.status = :status)",
+           countQuery = "SELECT COUNT(c) FROM Card c WHERE (:status IS NULL OR c.status = :status)")
+    Page<CardResponse> findResponses(@Param("status") CardStatus status, Pageable pageable);
+    
+    // Keyset variants ordered by (createdAt, id) descending, for the cursor endpoints
+    @Query("SELECT new com.bank.bank_rest.dto.card.CardResponse(" +
+           "c.id, c.maskedNumber, c.cardHolderName, c.expiryDate, c.status, c.balance, " +
+           "c.createdAt, c.updatedAt, o.id, CONCAT(o.firstName, ' ', o.lastName)) " +
+           "FROM Card c JOIN c.owner o WHERE o.id = :ownerId " +
            "AND (:status IS NULL OR c.status = :status) " +
-           "AND (:maskedNumber IS NULL OR c.maskedNumber LIKE %:maskedNumber%)")
-    Page<Card> findByOwnerWithFilters(@Param("ownerId") Long ownerId, 
-                                      @Param("status") CardStatus status,
-                                      @Param("maskedNumber") String maskedNumber, 
-                                      Pageable pageable);
+           "AND (:last4 IS NULL OR c.last4 = :last4) " +
+           "AND (:last4Prefix IS NULL OR c.last4 LIKE :last4Prefix%) " +
+           "AND (c.createdAt < :afterDate OR (c.createdAt = :afterDate AND c.id < :afterId)) " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<CardResponse> findResponsesByOwnerAfter(@Param("ownerId") Long ownerId,
+                                                 @Param("status") CardStatus status,
+                                                 @Param("last4") String last4,
+                                                 @Param("last4Prefix") String last4Prefix,
+                                                 @Param("afterDate") LocalDateTime afterDate,
+                                                 @Param("afterId") long afterId,
+                                                 Limit limit);
+    
+    @Query("SELECT new com.bank.bank_rest.dto.card.CardResponse(" +
+           "c.id, c.maskedNumber, c.cardHolderName, c.expiryDate, c.status, c.balance, " +
+           "c.createdAt, c.updatedAt, o.id, CONCAT(o.firstName, ' ', o.lastName)) " +
+           "FROM Card c JOIN c.owner o WHERE (:status IS NULL OR c.status = :status) " +
+           "AND (c.createdAt < :afterDate OR (c.createdAt = :afterDate AND c.id < :afterId)) " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<CardResponse> findResponsesAfter(@Param("status") CardStatus status,
+                                          @Param("afterDate") LocalDateTime afterDate,
+                                          @Param("afterId") long afterId,
+                                          Limit limit);
     
     Optional<Card> findByEncryptedNumber(String encryptedNumber);
     
+    boolean existsByNumberHash(String numberHash);
+    
+    Optional<Card> findByNumberHash(String numberHash);
+    
     @Query("SELECT c FROM Card c WHERE c.encryptedNumber = :encryptedNumber " +
            "AND c.owner.id = :ownerId")
     Optional<Card> findByEncryptedNumberAndOwnerId(@Param("encryptedNumber") String encryptedNumber,
                                                   @Param("ownerId") Long ownerId);
     
-    Page<Card> findByStatus(CardStatus status, Pageable pageable);
+    // Rows are locked in ascending id order, so concurrent transfers over the same cards cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Card c WHERE c.id IN :ids ORDER BY c.id")
+    List<Card> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,9 @@
+package com.bank.bank_rest.repository;
+
+import com.bank.bank_rest.model.RollupWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RollupWatermarkRepository extends JpaRepository<RollupWatermark, String> {
+}
@@ -0,0 +1,31 @@
+package com.bank.bank_rest.repository;
+
+import com.bank.bank_rest.dto.transfer.TransferDailyStatsResponse;
+import com.bank.bank_rest.model.TransferDailyStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface TransferDailyStatsRepository extends JpaRepository<TransferDailyStats, TransferDailyStats.Key> {
+    
+    @Query("SELECT new com.bank.bank_rest.dto.transfer.TransferDailyStatsResponse(" +
+           "s.statDate, s.outgoingCount, s.outgoingAmount, s.incomingCount, s.incomingAmount) " +
+           "FROM TransferDailyStats s WHERE s.cardId = :cardId AND s.statDate BETWEEN :from AND :to " +
+           "ORDER BY s.statDate")
+    List<TransferDailyStatsResponse> findCardDays(@Param("cardId") Long cardId,
+                                                  @Param("from") LocalDate from,
+                                                  @Param("to") LocalDate to);
+    
+    @Query("SELECT new com.bank.bank_rest.dto.transfer.TransferDailyStatsResponse(" +
+           "s.statDate, SUM(s.outgoingCount), SUM(s.outgoingAmount), SUM(s.incomingCount), SUM(s.incomingAmount)) " +
+           "FROM TransferDailyStats s WHERE s.ownerId = :ownerId AND s.statDate BETWEEN :from AND :to " +
+           "GROUP BY s.statDate ORDER BY s.statDate")
+    List<TransferDailyStatsResponse> findOwnerDays(@Param("ownerId") Long ownerId,
+                                                   @Param("from") LocalDate from,
+                                                   @Param("to") LocalDate to);
+}
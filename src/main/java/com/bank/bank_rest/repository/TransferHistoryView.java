@@ -0,0 +1,20 @@
+package com.bank.bank_rest.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Row of the transfer history read model: a transfer with the masked numbers of both cards,
+ * filled straight from the native history queries in {@link TransferRepository}.
+ */
+public interface TransferHistoryView {
+    Long getId();
+    Long getFromCardId();
+    String getFromCardNumber();
+    Long getToCardId();
+    String getToCardNumber();
+    BigDecimal getAmount();
+    String getDescription();
+    LocalDateTime getTransferDate();
+    Boolean getSuccessful();
+}
@@ -0,0 +1,44 @@
+package com.bank.bank_rest.repository;
+
+import com.bank.bank_rest.model.TransferIdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface TransferIdempotencyKeyRepository
+        extends JpaRepository<TransferIdempotencyKey, TransferIdempotencyKey.Key> {
+    
+    Optional<TransferIdempotencyKey> findByOwnerIdAndIdempotencyKey(Long ownerId, String idempotencyKey);
+    
+    // Returns 0 when the key exists; if its first insert is still uncommitted this waits for that transaction
+    @Modifying
+    @Query(value = "INSERT INTO transfer_idempotency_keys (owner_id, idempotency_key, request_hash, created_at) " +
+                   "VALUES (:ownerId, :key, :requestHash, now()) " +
+                   "ON CONFLICT (owner_id, idempotency_key) DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("ownerId") Long ownerId,
+                       @Param("key") String key,
+                       @Param("requestHash") String requestHash);
+    
+    @Modifying
+    @Query(value = "UPDATE transfer_idempotency_keys SET transfer_id = :transferId, response = :response " +
+                   "WHERE owner_id = :ownerId AND idempotency_key = :key",
+           nativeQuery = true)
+    int storeResponse(@Param("ownerId") Long ownerId,
+                      @Param("key") String key,
+                      @Param("transferId") Long transferId,
+                      @Param("response") String response);
+    
+    @Modifying
+    @Query(value = "DELETE FROM transfer_idempotency_keys WHERE (owner_id, idempotency_key) IN (" +
+                   "SELECT owner_id, idempotency_key FROM transfer_idempotency_keys " +
+                   "WHERE created_at < :cutoff LIMIT :batchSize)",
+           nativeQuery = true)
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff, @Param("batchSize") int batchSize);
+}
@@ -1,34 +1,110 @@
 package com.bank.bank_rest.repository;
 
-import com.bank.bank_rest.model.Card;
 import com.bank.bank_rest.model.Transfer;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 
 @Repository
 public interface TransferRepository extends JpaRepository<Transfer, Long> {
     
-    @Query("SELECT t FROM Transfer t WHERE " +
-           "(t.fromCard.owner.id = :ownerId OR t.toCard.owner.id = :ownerId)")
-    Page<Transfer> findByOwnerInvolvedCards(@Param("ownerId") Long ownerId, Pageable pageable);
-    
-    @Query("SELECT t FROM Transfer t WHERE " +
-           "((t.fromCard.id = :cardId AND t.fromCard.owner.id = :ownerId) OR " +
-           "(t.toCard.id = :cardId AND t.toCard.owner.id = :ownerId))")
-    Page<Transfer> findByCardAndOwner(@Param("cardId") Long cardId, 
-                                     @Param("ownerId") Long ownerId, 
-                                     Pageable pageable);
-    
-    @Query("SELECT t FROM Transfer t WHERE " +
-           "((t.fromCard = :fromCard AND t.fromCard.owner.id = :ownerId) OR " +
-           "(t.toCard = :toCard AND t.toCard.owner.id = :ownerId))")
-    Page<Transfer> findByCardsAndOwner(@Param("fromCard") Card fromCard, 
-                                       @Param("toCard") Card toCard, 
-                                       @Param("ownerId") Long ownerId, 
-                                       Pageable pageable);
+    String EXPORT_FETCH_SIZE = "1000";
+    
+    String HISTORY_COLUMNS =
+            "SELECT t.id AS \"id\", t.from_card_id AS \"fromCardId\", fc.masked_number AS \"fromCardNumber\", " +
+            "t.to_card_id AS \"toCardId\", tc.masked_number AS \"toCardNumber\", t.amount AS \"amount\", " +
+            "t.description AS \"description\", t.transfer_date AS \"transferDate\", t.successful AS \"successful\" ";
+    
+    String HISTORY_JOINS =
+            "JOIN transfers t ON t.id = h.id " +
+            "JOIN cards fc ON fc.id = t.from_card_id " +
+            "JOIN cards tc ON tc.id = t.to_card_id ";
+    
+    String HISTORY_ORDER = "ORDER BY t.transfer_date DESC, t.id DESC";
+    
+    // The OR over both card owners is split into two branches that can each use the owner and
+    // card id indexes; the second branch skips rows the first one already returned
+    String OWNER_BRANCHES =
+            "SELECT t.id FROM transfers t JOIN cards c ON c.id = t.from_card_id " +
+            "WHERE c.owner_id = :ownerId " +
+            "UNION ALL " +
+            "SELECT t.id FROM transfers t JOIN cards c ON c.id = t.to_card_id " +
+            "JOIN cards f ON f.id = t.from_card_id " +
+            "WHERE c.owner_id = :ownerId AND f.owner_id <> :ownerId";
+    
+    String CARD_BRANCHES =
+            "SELECT t.id FROM transfers t WHERE t.from_card_id = :cardId " +
+            "UNION ALL " +
+            "SELECT t.id FROM transfers t WHERE t.to_card_id = :cardId AND t.from_card_id <> :cardId";
+    
+    // Keyset variants: each branch seeks below the cursor and stops after :limit rows on its own
+    String AFTER_CURSOR = "AND (t.transfer_date, t.id) < (:afterDate, :afterId) " +
+            "ORDER BY t.transfer_date DESC, t.id DESC LIMIT :limit";
+    
+    String OWNER_BRANCHES_AFTER =
+            "(SELECT t.id FROM transfers t JOIN cards c ON c.id = t.from_card_id " +
+            "WHERE c.owner_id = :ownerId " + AFTER_CURSOR + ") " +
+            "UNION ALL " +
+            "(SELECT t.id FROM transfers t JOIN cards c ON c.id = t.to_card_id " +
+            "JOIN cards f ON f.id = t.from_card_id " +
+            "WHERE c.owner_id = :ownerId AND f.owner_id <> :ownerId " + AFTER_CURSOR + ")";
+    
+    String CARD_BRANCHES_AFTER =
+            "(SELECT t.id FROM transfers t WHERE t.from_card_id = :cardId " + AFTER_CURSOR + ") " +
+            "UNION ALL " +
+            "(SELECT t.id FROM transfers t WHERE t.to_card_id = :cardId AND t.from_card_id <> :cardId " +
+            AFTER_CURSOR + ")";
+    
+    @Query(value = HISTORY_COLUMNS + "FROM (" + OWNER_BRANCHES + ") h " + HISTORY_JOINS + HISTORY_ORDER,
+           countQuery = "SELECT COUNT(*) FROM (" + OWNER_BRANCHES + ") h",
+           nativeQuery = true)
+    Page<TransferHistoryView> findHistoryByOwner(@Param("ownerId") Long ownerId, Pageable pageable);
+    
+    @Query(value = HISTORY_COLUMNS + "FROM (" + CARD_BRANCHES + ") h " + HISTORY_JOINS + HISTORY_ORDER,
+           countQuery = "SELECT COUNT(*) FROM (" + CARD_BRANCHES + ") h",
+           nativeQuery = true)
+    Page<TransferHistoryView> findHistoryByCard(@Param("cardId") Long cardId, Pageable pageable);
+    
+    @Query(value = HISTORY_COLUMNS + "FROM (" + OWNER_BRANCHES_AFTER + ") h " + HISTORY_JOINS +
+                   HISTORY_ORDER + " LIMIT :limit",
+           nativeQuery = true)
+    List<TransferHistoryView> findHistoryByOwnerAfter(@Param("ownerId") Long ownerId,
+                                                      @Param("afterDate") LocalDateTime afterDate,
+                                                      @Param("afterId") long afterId,
+                                                      @Param("limit") int limit);
+    
+    @Query(value = HISTORY_COLUMNS + "FROM (" + CARD_BRANCHES_AFTER + ") h " + HISTORY_JOINS +
+                   HISTORY_ORDER + " LIMIT :limit",
+           nativeQuery = true)
+    List<TransferHistoryView> findHistoryByCardAfter(@Param("cardId") Long cardId,
+                                                     @Param("afterDate") LocalDateTime afterDate,
+                                                     @Param("afterId") long afterId,
+                                                     @Param("limit") int limit);
+    
+    // Export variants: rows are pulled through a server-side cursor, EXPORT_FETCH_SIZE at a time;
+    // callers must consume the stream inside a transaction and close it
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(value = HISTORY_COLUMNS + "FROM (" + OWNER_BRANCHES + ") h " + HISTORY_JOINS + HISTORY_ORDER,
+           nativeQuery = true)
+    Stream<TransferHistoryView> streamHistoryByOwner(@Param("ownerId") Long ownerId);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(value = HISTORY_COLUMNS + "FROM (" + CARD_BRANCHES + ") h " + HISTORY_JOINS + HISTORY_ORDER,
+           nativeQuery = true)
+    Stream<TransferHistoryView> streamHistoryByCard(@Param("cardId") Long cardId);
+    
+    @Query("SELECT t FROM Transfer t JOIN FETCH t.fromCard JOIN FETCH t.toCard WHERE t.id = :id")
+    Optional<Transfer> findByIdWithCards(@Param("id") Long id);
 }
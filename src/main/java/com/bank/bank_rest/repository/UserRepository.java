@@ -1,10 +1,20 @@
 package com.bank.bank_rest.repository;
 
+import com.bank.bank_rest.dto.user.UserResponse;
 import com.bank.bank_rest.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -12,4 +22,19 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+    
+    // Admin listings project into UserResponse: no password hash, no cards collection
+    @Query("SELECT new com.bank.bank_rest.dto.user.UserResponse(" +
+           "u.id, u.username, u.firstName, u.lastName, u.email, u.role, u.createdAt, u.enabled) " +
+           "FROM User u WHERE u.createdAt < :afterDate OR (u.createdAt = :afterDate AND u.id < :afterId) " +
+           "ORDER BY u.createdAt DESC, u.id DESC")
+    List<UserResponse> findResponsesAfter(@Param("afterDate") LocalDateTime afterDate,
+                                          @Param("afterId") long afterId,
+                                          Limit limit);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.bank.bank_rest.dto.user.UserResponse(" +
+           "u.id, u.username, u.firstName, u.lastName, u.email, u.role, u.createdAt, u.enabled) " +
+           "FROM User u ORDER BY u.id")
+    Stream<UserResponse> streamResponses();
 }
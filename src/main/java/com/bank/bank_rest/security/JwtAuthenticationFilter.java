@@ -1,5 +1,6 @@
 package com.bank.bank_rest.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -16,6 +17,7 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
@@ -24,6 +26,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
     private final JwtTokenProvider jwtTokenProvider;
     private final UserDetailsService userDetailsService;
+    private final VerifiedTokenCache verifiedTokenCache;
     
     @Override
     protected void doFilterInternal(@SuppressWarnings("NullableProblems") HttpServletRequest request, 
@@ -31,16 +34,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                      @SuppressWarnings("NullableProblems") FilterChain filterChain) throws ServletException, IOException {
         try {
             String jwt = getJwtFromRequest(request);
+            String username = StringUtils.hasText(jwt) ? resolveUsername(jwt) : null;
             
-            if (StringUtils.hasText(jwt) && jwtTokenProvider.validateToken(jwt)) {
-                String username = jwtTokenProvider.getUsernameFromToken(jwt);
+            if (username != null) {
                 UserDetails userDetails = userDetailsService.loadUserByUsername(username);
                 
-                UsernamePasswordAuthenticationToken authentication = 
-                    new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+                // A token issued before the account was disabled stays valid until it expires; the account does not
+                if (userDetails.isEnabled()) {
+                    UsernamePasswordAuthenticationToken authentication = 
+                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                } else {
+                    log.debug("Rejected token of disabled user {}", username);
+                }
             }
         } catch (Exception ex) {
             log.error("Could not set user authentication in security context", ex);
@@ -49,6 +57,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
     
+    private String resolveUsername(String jwt) {
+        String cachedUsername = verifiedTokenCache.getSubject(jwt);
+        if (cachedUsername != null) {
+            return cachedUsername;
+        }
+        
+        Optional<Claims> claims = jwtTokenProvider.parseValidClaims(jwt);
+        claims.ifPresent(c -> verifiedTokenCache.put(jwt, c.getSubject(), c.getExpiration()));
+        return claims.map(Claims::getSubject).orElse(null);
+    }
+    
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
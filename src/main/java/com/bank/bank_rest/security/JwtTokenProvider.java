@@ -11,6 +11,7 @@ import javax.crypto.SecretKey;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.function.Function;
 
 @Component
@@ -19,11 +20,16 @@ public class JwtTokenProvider {
     
     private final SecretKey secretKey;
     private final long jwtExpirationInMs;
+    // Immutable and thread-safe, so one instance serves every request
+    private final JwtParser jwtParser;
     
     public JwtTokenProvider(@Value("${jwt.secret}") String secret,
                            @Value("${jwt.expiration}") long jwtExpirationInMs) {
         this.secretKey = Keys.hmacShaKeyFor(secret.getBytes());
         this.jwtExpirationInMs = jwtExpirationInMs;
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(secretKey)
+                .build();
     }
     
     public String generateToken(UserDetails userDetails) {
@@ -58,11 +64,20 @@ public class JwtTokenProvider {
     }
     
     private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(secretKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return jwtParser.parseClaimsJws(token).getBody();
+    }
+    
+    /**
+     * Verifies the signature and expiry in a single parse and returns the claims of a valid token,
+     * or empty if the token is malformed, tampered with or expired.
+     */
+    public Optional<Claims> parseValidClaims(String token) {
+        try {
+            return Optional.of(getAllClaimsFromToken(token));
+        } catch (JwtException | IllegalArgumentException e) {
+            log.error("Invalid JWT token: {}", e.getMessage());
+            return Optional.empty();
+        }
     }
     
     public Boolean isTokenExpired(String token) {
@@ -81,15 +96,7 @@ public class JwtTokenProvider {
     }
     
     public Boolean validateToken(String token) {
-        try {
-            Jwts.parserBuilder()
-                .setSigningKey(secretKey)
-                .build()
-                .parseClaimsJws(token);
-            return !isTokenExpired(token);
-        } catch (JwtException | IllegalArgumentException e) {
-            log.error("Invalid JWT token: {}", e.getMessage());
-            return false;
-        }
+        // The parser already rejects expired tokens, so no separate expiry check is needed
+        return parseValidClaims(token).isPresent();
     }
 }
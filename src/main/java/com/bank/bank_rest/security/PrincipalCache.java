@@ -0,0 +1,89 @@
+package com.bank.bank_rest.security;
+
+import com.bank.bank_rest.model.User;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Bounded, time-limited cache of authenticated principals keyed by username, so that
+ * requests carrying a JWT do not need a users query each. Hit/miss counters are
+ * published as the "principals" cache metrics.
+ */
+@Component
+public class PrincipalCache {
+    
+    private final AsyncCache<String, User> cache;
+    
+    public PrincipalCache(@Value("${bank.security.principal-cache.maximum-size:10000}") long maximumSize,
+                          @Value("${bank.security.principal-cache.ttl:5m}") Duration ttl,
+                          MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "principals");
+    }
+    
+    /**
+     * The users query runs on the calling thread, outside the cache's locks: a synchronous
+     * Cache.get(key, loader) would run it inside a ConcurrentHashMap bin lock and pin the carrier
+     * thread under virtual threads. Concurrent misses for one username share the first load, and an
+     * eviction during the load discards its result instead of caching it.
+     */
+    public User get(String username, Function<String, User> loader) {
+        CompletableFuture<User> cached = cache.getIfPresent(username);
+        if (cached == null) {
+            CompletableFuture<User> loading = new CompletableFuture<>();
+            cached = cache.asMap().putIfAbsent(username, loading);
+            if (cached == null) {
+                return load(username, loader, loading);
+            }
+        }
+        try {
+            return cached.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+    
+    private User load(String username, Function<String, User> loader, CompletableFuture<User> loading) {
+        try {
+            User user = loader.apply(username);
+            loading.complete(user);
+            return user;
+        } catch (RuntimeException e) {
+            cache.asMap().remove(username, loading);
+            loading.completeExceptionally(e);
+            throw e;
+        }
+    }
+    
+    /**
+     * Drops the cached principal once the surrounding transaction commits. Evicting earlier
+     * would let a concurrent request re-cache the old role or enabled flag before the change is visible.
+     */
+    public void evictAfterCommit(String username) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.synchronous().invalidate(username);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.synchronous().invalidate(username);
+            }
+        });
+    }
+}
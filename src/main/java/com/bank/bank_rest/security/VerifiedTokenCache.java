@@ -0,0 +1,77 @@
+package com.bank.bank_rest.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Optional short-lived cache of already verified bearer tokens, so clients that repeat the same
+ * token skip signature verification. Entries are keyed by a SHA-256 digest (raw tokens are never
+ * kept) and never outlive the token's own expiry. Hit rate is published as the "verified-tokens" cache metrics.
+ */
+@Component
+public class VerifiedTokenCache {
+    
+    private final boolean enabled;
+    private final Cache<String, VerifiedToken> cache;
+    
+    public VerifiedTokenCache(@Value("${jwt.token-cache.enabled:false}") boolean enabled,
+                              @Value("${jwt.token-cache.maximum-size:50000}") long maximumSize,
+                              @Value("${jwt.token-cache.ttl:1m}") Duration ttl,
+                              MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(Expiry.creating((String digest, VerifiedToken token) -> {
+                    Duration untilExpiry = Duration.between(Instant.now(), token.expiresAt());
+                    return untilExpiry.compareTo(ttl) < 0 ? untilExpiry : ttl;
+                }))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "verified-tokens");
+    }
+    
+    /**
+     * Returns the subject of a previously verified, still unexpired token, or null on a miss.
+     */
+    public String getSubject(String token) {
+        if (!enabled) {
+            return null;
+        }
+        VerifiedToken verified = cache.getIfPresent(digest(token));
+        if (verified == null || !verified.expiresAt().isAfter(Instant.now())) {
+            return null;
+        }
+        return verified.subject();
+    }
+    
+    public void put(String token, String subject, Date expiresAt) {
+        if (enabled && subject != null && expiresAt != null) {
+            cache.put(digest(token), new VerifiedToken(subject, expiresAt.toInstant()));
+        }
+    }
+    
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+    
+    public record VerifiedToken(String subject, Instant expiresAt) {
+    }
+}
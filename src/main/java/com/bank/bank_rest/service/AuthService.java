@@ -1,18 +1,25 @@
 package com.bank.bank_rest.service;
 
+import com.bank.bank_rest.dto.CursorPage;
 import com.bank.bank_rest.dto.login.LoginRequest;
 import com.bank.bank_rest.dto.login.LoginResponse;
 import com.bank.bank_rest.dto.user.UserRegistrationRequest;
 import com.bank.bank_rest.dto.user.UserResponse;
 import com.bank.bank_rest.model.User;
+import com.bank.bank_rest.model.enums.Role;
 import com.bank.bank_rest.repository.UserRepository;
 import com.bank.bank_rest.security.JwtTokenProvider;
+import com.bank.bank_rest.security.PrincipalCache;
+import com.bank.bank_rest.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -21,6 +28,7 @@ public class AuthService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider jwtTokenProvider;
+    private final PrincipalCache principalCache;
     
     @Transactional
     public UserResponse registerUser(UserRegistrationRequest request) {
@@ -65,6 +73,40 @@ public class AuthService {
         return new LoginResponse(token, "Bearer", user.getUsername(), user.getRole().name());
     }
     
+    @Transactional(readOnly = true)
+    public CursorPage<UserResponse> getUsers(String after, int size) {
+        KeysetCursor cursor = KeysetCursor.decode(after);
+        List<UserResponse> users = userRepository.findResponsesAfter(
+                cursor.timestamp(), cursor.id(), Limit.of(size + 1));
+        return CursorPage.of(users, size, user -> new KeysetCursor(user.getCreatedAt(), user.getId()));
+    }
+    
+    @Transactional
+    public UserResponse updateUserRole(Long userId, Role role) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        
+        user.setRole(role);
+        User updatedUser = userRepository.save(user);
+        principalCache.evictAfterCommit(updatedUser.getUsername());
+        
+        log.info("User {} role updated to {}", userId, role);
+        return mapToUserResponse(updatedUser);
+    }
+    
+    @Transactional
+    public UserResponse updateUserEnabled(Long userId, boolean enabled) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        
+        user.setEnabled(enabled);
+        User updatedUser = userRepository.save(user);
+        principalCache.evictAfterCommit(updatedUser.getUsername());
+        
+        log.info("User {} {}", userId, enabled ? "enabled" : "disabled");
+        return mapToUserResponse(updatedUser);
+    }
+    
     private UserResponse mapToUserResponse(User user) {
         UserResponse response = new UserResponse();
         response.setId(user.getId());
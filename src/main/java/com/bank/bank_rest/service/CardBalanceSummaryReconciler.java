@@ -0,0 +1,81 @@
+package com.bank.bank_rest.service;
+
+import com.bank.bank_rest.repository.CardBalanceSummaryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Periodically compares card_balance_summaries with a GROUP BY over cards. The comparison is a
+ * single statement, so it sees one snapshot in which cards and summaries were committed together;
+ * any difference is a real drift, counted in bank.cards.summary.mismatches and optionally repaired.
+ */
+@Slf4j
+@Component
+public class CardBalanceSummaryReconciler {
+    
+    private static final String MISMATCH_QUERY =
+            "SELECT COALESCE(c.owner_id, s.owner_id) AS owner_id, COALESCE(c.status, s.status) AS status, " +
+            "       COALESCE(c.card_count, 0) AS actual_count, COALESCE(s.card_count, 0) AS summary_count, " +
+            "       COALESCE(c.total_balance, 0) AS actual_balance, COALESCE(s.total_balance, 0) AS summary_balance " +
+            "FROM (SELECT owner_id, status, COUNT(*) AS card_count, SUM(balance) AS total_balance " +
+            "      FROM cards GROUP BY owner_id, status) c " +
+            "FULL OUTER JOIN card_balance_summaries s ON s.owner_id = c.owner_id AND s.status = c.status " +
+            "WHERE COALESCE(c.card_count, 0) <> COALESCE(s.card_count, 0) " +
+            "   OR COALESCE(c.total_balance, 0) <> COALESCE(s.total_balance, 0)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionOperations transactionOperations;
+    private final CardBalanceSummaryRepository summaryRepository;
+    private final MeterRegistry meterRegistry;
+    private final boolean repair;
+    
+    public CardBalanceSummaryReconciler(JdbcTemplate jdbcTemplate,
+                                        TransactionOperations transactionOperations,
+                                        CardBalanceSummaryRepository summaryRepository,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${bank.card.summary.reconcile.repair:false}") boolean repair) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionOperations = transactionOperations;
+        this.summaryRepository = summaryRepository;
+        this.meterRegistry = meterRegistry;
+        this.repair = repair;
+    }
+    
+    @Scheduled(initialDelayString = "${bank.card.summary.reconcile.initial-delay:PT5M}",
+               fixedDelayString = "${bank.card.summary.reconcile.interval:PT1H}")
+    public void reconcile() {
+        Set<Long> driftedOwners = new LinkedHashSet<>();
+        
+        jdbcTemplate.query(MISMATCH_QUERY, rs -> {
+            long ownerId = rs.getLong("owner_id");
+            log.warn("Card summary mismatch for user {} status {}: cards {} / {}, summary {} / {}",
+                    ownerId, rs.getString("status"),
+                    rs.getLong("actual_count"), rs.getBigDecimal("actual_balance"),
+                    rs.getLong("summary_count"), rs.getBigDecimal("summary_balance"));
+            driftedOwners.add(ownerId);
+        });
+        
+        meterRegistry.counter("bank.cards.summary.mismatches").increment(driftedOwners.size());
+        
+        if (repair) {
+            driftedOwners.forEach(this::repairOwner);
+        }
+    }
+    
+    private void repairOwner(Long ownerId) {
+        transactionOperations.executeWithoutResult(status -> {
+            // Waits for in-flight summary writers of this owner; the recompute then sees their commits
+            summaryRepository.lockOwner(ownerId);
+            summaryRepository.recomputeOwner(ownerId);
+        });
+        log.info("Card summary for user {} rebuilt from cards", ownerId);
+    }
+}
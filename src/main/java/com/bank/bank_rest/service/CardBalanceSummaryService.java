@@ -0,0 +1,127 @@
+package com.bank.bank_rest.service;
+
+import com.bank.bank_rest.dto.card.CardBalanceSummaryResponse;
+import com.bank.bank_rest.dto.card.CardStatusTotal;
+import com.bank.bank_rest.model.Card;
+import com.bank.bank_rest.model.Money;
+import com.bank.bank_rest.model.Transfer;
+import com.bank.bank_rest.model.enums.CardStatus;
+import com.bank.bank_rest.repository.CardBalanceSummaryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maintains card_balance_summaries alongside card changes. Every method that writes joins the
+ * caller's transaction, so a summary row never reflects a card change that was rolled back.
+ */
+@Service
+@RequiredArgsConstructor
+public class CardBalanceSummaryService {
+    
+    // Owners, then statuses, in a fixed order so two writers never wait on each other's rows
+    private static final Comparator<SummaryKey> KEY_ORDER =
+            Comparator.comparing(SummaryKey::ownerId).thenComparing(SummaryKey::status);
+    
+    private final CardBalanceSummaryRepository summaryRepository;
+    
+    @Transactional(readOnly = true)
+    public CardBalanceSummaryResponse getSummary(Long ownerId) {
+        List<CardStatusTotal> byStatus = summaryRepository.findByOwnerIdOrderByStatus(ownerId).stream()
+                .filter(summary -> summary.getCardCount() > 0)
+                .map(summary -> new CardStatusTotal(summary.getStatus(), summary.getCardCount(), summary.getTotalBalance()))
+                .toList();
+        
+        long cardCount = 0;
+        BigDecimal totalBalance = BigDecimal.ZERO;
+        for (CardStatusTotal total : byStatus) {
+            cardCount += total.getCardCount();
+            totalBalance = totalBalance.add(total.getTotalBalance());
+        }
+        
+        return new CardBalanceSummaryResponse(ownerId, cardCount, totalBalance, byStatus);
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void cardAdded(Card card) {
+        Map<SummaryKey, Delta> deltas = new TreeMap<>(KEY_ORDER);
+        add(deltas, card.getOwner().getId(), card.getStatus(), 1, card.getBalance());
+        apply(deltas);
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void cardRemoved(Card card) {
+        Map<SummaryKey, Delta> deltas = new TreeMap<>(KEY_ORDER);
+        add(deltas, card.getOwner().getId(), card.getStatus(), -1, card.getBalance().negate());
+        apply(deltas);
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void statusChanged(Card card, CardStatus previousStatus) {
+        Map<SummaryKey, Delta> deltas = new TreeMap<>(KEY_ORDER);
+        add(deltas, card.getOwner().getId(), previousStatus, -1, card.getBalance().negate());
+        add(deltas, card.getOwner().getId(), card.getStatus(), 1, card.getBalance());
+        apply(deltas);
+    }
+    
+    /**
+     * Moves the amounts of successful transfers between the summaries of their cards.
+     * Transfers between two cards of the same owner and status cancel out and write nothing.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void transfersApplied(List<Transfer> transfers) {
+        Map<SummaryKey, Delta> deltas = new TreeMap<>(KEY_ORDER);
+        for (Transfer transfer : transfers) {
+            Card fromCard = transfer.getFromCard();
+            Card toCard = transfer.getToCard();
+            add(deltas, fromCard.getOwner().getId(), fromCard.getStatus(), 0, transfer.getAmount().negate());
+            add(deltas, toCard.getOwner().getId(), toCard.getStatus(), 0, transfer.getAmount());
+        }
+        apply(deltas);
+    }
+    
+    private void add(Map<SummaryKey, Delta> deltas, Long ownerId, CardStatus status, long count, Money balance) {
+        deltas.merge(new SummaryKey(ownerId, status), new Delta(count, balance), Delta::plus);
+    }
+    
+    private void apply(Map<SummaryKey, Delta> deltas) {
+        Long lockedOwner = null;
+        
+        for (Map.Entry<SummaryKey, Delta> entry : deltas.entrySet()) {
+            SummaryKey key = entry.getKey();
+            Delta delta = entry.getValue();
+            if (delta.isZero()) {
+                continue;
+            }
+            
+            // The reconciler repairs an owner under the same lock, so it never overwrites a delta in flight
+            if (!key.ownerId().equals(lockedOwner)) {
+                summaryRepository.lockOwner(key.ownerId());
+                lockedOwner = key.ownerId();
+            }
+            summaryRepository.applyDelta(key.ownerId(), key.status().name(), delta.count(),
+                    delta.balance().toBigDecimal());
+        }
+    }
+    
+    private record SummaryKey(Long ownerId, CardStatus status) {
+    }
+    
+    private record Delta(long count, Money balance) {
+        
+        Delta plus(Delta other) {
+            return new Delta(count + other.count, balance.plus(other.balance));
+        }
+        
+        boolean isZero() {
+            return count == 0 && balance.signum() == 0;
+        }
+    }
+}
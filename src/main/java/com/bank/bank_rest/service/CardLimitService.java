@@ -0,0 +1,219 @@
+package com.bank.bank_rest.service;
+
+import com.bank.bank_rest.dto.card.CardLimitsResponse;
+import com.bank.bank_rest.model.Card;
+import com.bank.bank_rest.model.Money;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Enforces Card.dailyLimit and Card.monthlyLimit from in-memory spend counters, so a transfer
+ * costs no query beyond loading its cards. Only cards with a limit are tracked. Counters are
+ * rebuilt at startup from transfer_daily_stats plus the transfers the rollup has not reached yet,
+ * and a card missing from the map is loaded the same way on first use.
+ *
+ * Reservations count from the moment a transfer passes validation and are taken back if its
+ * transaction rolls back. The counters belong to this process: with several instances behind a
+ * load balancer each enforces the limit on the transfers it served.
+ */
+@Slf4j
+@Service
+public class CardLimitService implements ApplicationRunner {
+    
+    private static final String LIMITED_CARDS = "(c.daily_limit IS NOT NULL OR c.monthly_limit IS NOT NULL)";
+    
+    private static final String ONE_CARD = "c.id = ?";
+    
+    private static final String ROLLED_UP_SPEND =
+            "SELECT s.card_id, s.stat_date, s.outgoing_amount FROM transfer_daily_stats s " +
+            "JOIN cards c ON c.id = s.card_id WHERE s.stat_date >= ? AND ";
+    
+    private static final String TAIL_SPEND =
+            "SELECT t.from_card_id AS card_id, t.transfer_date, t.amount FROM transfers t " +
+            "JOIN cards c ON c.id = t.from_card_id " +
+            "WHERE t.successful = true AND (t.transfer_date, t.id) > (?, ?) AND t.transfer_date >= ? AND ";
+    
+    private static final String WATERMARK =
+            "SELECT last_date, last_id FROM rollup_watermarks WHERE name = ?";
+    
+    private static final LocalDateTime BEFORE_ANY_TRANSFER = LocalDateTime.of(1970, 1, 1, 0, 0);
+    
+    private final ConcurrentHashMap<Long, Spend> spendByCard = new ConcurrentHashMap<>();
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public CardLimitService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        Map<Long, Spend> loaded = loadSpend(null);
+        // Cards loaded on demand while this ran already hold newer reservations
+        loaded.forEach(spendByCard::putIfAbsent);
+        log.info("Loaded transfer limit counters for {} cards", loaded.size());
+    }
+    
+    /**
+     * Counts the amount against the source card's limits, or fails if either would be exceeded.
+     * Must run inside the transfer transaction; a rollback releases the amount again.
+     */
+    public void reserve(Card card, Money transferAmount) {
+        if (!card.hasLimits()) {
+            return;
+        }
+        
+        // Limits and counters stay BigDecimal; only cards that have limits pay for the conversion
+        BigDecimal amount = transferAmount.toBigDecimal();
+        Long cardId = card.getId();
+        LocalDate today = LocalDate.now();
+        ensureTracked(cardId);
+        
+        // compute() runs under the map's lock for this card's bin, so check and add are atomic
+        spendByCard.compute(cardId, (id, spend) -> {
+            Spend current = (spend != null ? spend : Spend.empty(today)).rollTo(today);
+            if (card.getDailyLimit() != null && current.today().add(amount).compareTo(card.getDailyLimit()) > 0) {
+                throw new RuntimeException("Daily transfer limit exceeded for card " + cardId);
+            }
+            if (card.getMonthlyLimit() != null && current.thisMonth().add(amount).compareTo(card.getMonthlyLimit()) > 0) {
+                throw new RuntimeException("Monthly transfer limit exceeded for card " + cardId);
+            }
+            return current.plus(amount);
+        });
+        
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        release(cardId, today, amount);
+                    }
+                }
+            });
+        }
+    }
+    
+    public CardLimitsResponse getLimits(Card card) {
+        if (!card.hasLimits()) {
+            return new CardLimitsResponse(card.getId(), null, null, null, null);
+        }
+        ensureTracked(card.getId());
+        Spend spend = spendByCard.get(card.getId()).rollTo(LocalDate.now());
+        return new CardLimitsResponse(card.getId(), card.getDailyLimit(), card.getMonthlyLimit(),
+                spend.today(), spend.thisMonth());
+    }
+    
+    /**
+     * Starts or stops tracking a card after its limits were changed.
+     */
+    public void limitsChanged(Card card) {
+        if (card.hasLimits()) {
+            ensureTracked(card.getId());
+        } else {
+            spendByCard.remove(card.getId());
+        }
+    }
+    
+    private void ensureTracked(Long cardId) {
+        if (!spendByCard.containsKey(cardId)) {
+            Spend spend = loadSpend(cardId).getOrDefault(cardId, Spend.empty(LocalDate.now()));
+            spendByCard.putIfAbsent(cardId, spend);
+        }
+    }
+    
+    private void release(Long cardId, LocalDate day, BigDecimal amount) {
+        spendByCard.computeIfPresent(cardId, (id, spend) -> spend.minus(day, amount));
+    }
+    
+    /**
+     * Spend of the current month per card: rolled-up days plus the transfers past the rollup watermark.
+     */
+    private Map<Long, Spend> loadSpend(Long cardId) {
+        LocalDate today = LocalDate.now();
+        LocalDate monthStart = today.withDayOfMonth(1);
+        String cardCondition = cardId != null ? ONE_CARD : LIMITED_CARDS;
+        Map<Long, Spend> spend = new HashMap<>();
+        
+        jdbcTemplate.query(ROLLED_UP_SPEND + cardCondition, rs -> {
+            addSpend(spend, rs.getLong("card_id"), rs.getDate("stat_date").toLocalDate(),
+                    rs.getBigDecimal("outgoing_amount"), today);
+        }, withCard(cardId, monthStart));
+        
+        // The rollup holds every transfer up to its watermark; later ones are read from transfers
+        Watermark watermark = jdbcTemplate.query(WATERMARK,
+                        (rs, rowNum) -> new Watermark(rs.getTimestamp("last_date").toLocalDateTime(), rs.getLong("last_id")),
+                        TransferStatsRollup.WATERMARK)
+                .stream().findFirst().orElse(new Watermark(BEFORE_ANY_TRANSFER, 0));
+        
+        jdbcTemplate.query(TAIL_SPEND + cardCondition, rs -> {
+            addSpend(spend, rs.getLong("card_id"), rs.getTimestamp("transfer_date").toLocalDateTime().toLocalDate(),
+                    rs.getBigDecimal("amount"), today);
+        }, withCard(cardId, watermark.date(), watermark.id(), monthStart.atStartOfDay()));
+        
+        return spend;
+    }
+    
+    private Object[] withCard(Long cardId, Object... args) {
+        if (cardId == null) {
+            return args;
+        }
+        Object[] withCard = Arrays.copyOf(args, args.length + 1);
+        withCard[args.length] = cardId;
+        return withCard;
+    }
+    
+    private void addSpend(Map<Long, Spend> spend, long cardId, LocalDate day, BigDecimal amount, LocalDate today) {
+        Spend current = spend.getOrDefault(cardId, Spend.empty(today));
+        spend.put(cardId, day.equals(today) ? current.plus(amount) : current.plusMonthOnly(amount));
+    }
+    
+    private record Watermark(LocalDateTime date, long id) {
+    }
+    
+    /**
+     * Spend of one card in the current day and month; replaced as a whole on every change.
+     */
+    private record Spend(LocalDate day, BigDecimal today, YearMonth month, BigDecimal thisMonth) {
+        
+        static Spend empty(LocalDate day) {
+            return new Spend(day, BigDecimal.ZERO, YearMonth.from(day), BigDecimal.ZERO);
+        }
+        
+        Spend rollTo(LocalDate date) {
+            if (date.equals(day)) {
+                return this;
+            }
+            YearMonth newMonth = YearMonth.from(date);
+            return new Spend(date, BigDecimal.ZERO, newMonth, newMonth.equals(month) ? thisMonth : BigDecimal.ZERO);
+        }
+        
+        Spend plus(BigDecimal amount) {
+            return new Spend(day, today.add(amount), month, thisMonth.add(amount));
+        }
+        
+        Spend plusMonthOnly(BigDecimal amount) {
+            return new Spend(day, today, month, thisMonth.add(amount));
+        }
+        
+        Spend minus(LocalDate reservedOn, BigDecimal amount) {
+            // A reservation from a day or month that has since rolled over no longer counts anywhere
+            BigDecimal newToday = reservedOn.equals(day) ? today.subtract(amount) : today;
+            BigDecimal newMonth = YearMonth.from(reservedOn).equals(month) ? thisMonth.subtract(amount) : thisMonth;
+            return new Spend(day, newToday, month, newMonth);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.bank.bank_rest.service;
+
+import com.bank.bank_rest.util.CardEncryptionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fills cards.number_hash for cards created before the blind index existed.
+ * Rows are walked in id order, one chunk per transaction, so progress survives
+ * restarts and running it on several instances at once is harmless.
+ */
+@Slf4j
+@Component
+public class CardNumberHashBackfill implements ApplicationRunner {
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionOperations transactionOperations;
+    private final CardEncryptionUtil cardEncryptionUtil;
+    private final int chunkSize;
+    
+    public CardNumberHashBackfill(JdbcTemplate jdbcTemplate,
+                                  TransactionOperations transactionOperations,
+                                  CardEncryptionUtil cardEncryptionUtil,
+                                  @Value("${bank.card.blind-index.backfill-chunk-size:500}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionOperations = transactionOperations;
+        this.cardEncryptionUtil = cardEncryptionUtil;
+        this.chunkSize = chunkSize;
+    }
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        long lastId = 0;
+        int total = 0;
+        
+        while (true) {
+            List<Object[]> hashes = backfillChunk(lastId);
+            if (hashes.isEmpty()) {
+                break;
+            }
+            total += hashes.size();
+            lastId = (Long) hashes.get(hashes.size() - 1)[1];
+        }
+        
+        if (total > 0) {
+            log.info("Backfilled number_hash for {} cards", total);
+        }
+    }
+    
+    private List<Object[]> backfillChunk(long afterId) {
+        return transactionOperations.execute(status -> {
+            List<Object[]> hashes = new ArrayList<>();
+            jdbcTemplate.query(
+                    "SELECT id, encrypted_number FROM cards WHERE number_hash IS NULL AND id > ? ORDER BY id LIMIT ?",
+                    rs -> {
+                        String cardNumber = cardEncryptionUtil.decryptCardNumber(rs.getString("encrypted_number"));
+                        hashes.add(new Object[]{cardEncryptionUtil.hashCardNumber(cardNumber), rs.getLong("id")});
+                    },
+                    afterId, chunkSize);
+            
+            if (!hashes.isEmpty()) {
+                jdbcTemplate.batchUpdate("UPDATE cards SET number_hash = ? WHERE id = ?", hashes);
+            }
+            return hashes;
+        });
+    }
+}
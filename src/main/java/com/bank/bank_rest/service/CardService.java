@@ -1,17 +1,23 @@
 package com.bank.bank_rest.service;
 
+import com.bank.bank_rest.dto.CursorPage;
 import com.bank.bank_rest.dto.card.CardCreateRequest;
 import com.bank.bank_rest.dto.card.CardFilterRequest;
+import com.bank.bank_rest.dto.card.CardLimitsRequest;
+import com.bank.bank_rest.dto.card.CardLimitsResponse;
 import com.bank.bank_rest.dto.card.CardResponse;
 import com.bank.bank_rest.model.Card;
+import com.bank.bank_rest.model.Money;
 import com.bank.bank_rest.model.User;
 import com.bank.bank_rest.model.enums.CardStatus;
 import com.bank.bank_rest.repository.CardRepository;
 import com.bank.bank_rest.repository.UserRepository;
 import com.bank.bank_rest.util.CardEncryptionUtil;
 import com.bank.bank_rest.util.CardNumberGenerator;
+import com.bank.bank_rest.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -22,7 +28,12 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -33,6 +44,9 @@ public class CardService {
     private final UserRepository userRepository;
     private final CardEncryptionUtil cardEncryptionUtil;
     private final CardNumberGenerator cardNumberGenerator;
+    private final CardBalanceSummaryService cardBalanceSummaryService;
+    private final CardLimitService cardLimitService;
+    private final TransferEngine transferEngine;
     
     @Transactional
     public CardResponse createCard(CardCreateRequest request, Long ownerId) {
@@ -51,22 +65,24 @@ public class CardService {
             cardNumber = cardNumberGenerator.generateCardNumber();
         }
         
-        // Check if card number already exists
-        String encryptedNumber = cardEncryptionUtil.encryptCardNumber(cardNumber);
-        if (cardRepository.findByEncryptedNumber(encryptedNumber).isPresent()) {
+        // Check if card number already exists; the keyed hash does not depend on the encryption mode
+        String numberHash = cardEncryptionUtil.hashCardNumber(cardNumber);
+        if (cardRepository.existsByNumberHash(numberHash)) {
             throw new RuntimeException("Card with this number already exists");
         }
         
         Card card = new Card();
-        card.setEncryptedNumber(encryptedNumber);
+        card.setEncryptedNumber(cardEncryptionUtil.encryptCardNumber(cardNumber));
+        card.setNumberHash(numberHash);
         card.setMaskedNumber(cardEncryptionUtil.maskCardNumber(cardNumber));
         card.setOwner(owner);
         card.setCardHolderName(request.getCardHolderName());
         card.setExpiryDate(request.getExpiryDate());
         card.setStatus(request.getStatus());
-        card.setBalance(request.getInitialBalance());
+        card.setBalance(request.getInitialBalance() != null ? Money.of(request.getInitialBalance()) : Money.ZERO);
         
         Card savedCard = cardRepository.save(card);
+        cardBalanceSummaryService.cardAdded(savedCard);
         log.info("Card created successfully with ID: {}", savedCard.getId());
         
         return mapToCardResponse(savedCard);
@@ -82,26 +98,38 @@ public class CardService {
             Sort.by("createdAt").descending()
         );
         
-        Page<Card> cards;
-        
         if (isAdmin) {
             // Admin can see all cards or filter by status
-            if (filter.getStatus() != null) {
-                cards = cardRepository.findByStatus(filter.getStatus(), pageable);
-            } else {
-                cards = cardRepository.findAll(pageable);
-            }
+            return cardRepository.findResponses(filter.getStatus(), pageable);
+        }
+        
+        // Regular user can only see their cards
+        String digits = searchDigits(filter.getMaskedNumber());
+        return cardRepository.findResponsesByOwnerWithFilters(
+            ownerId, 
+            filter.getStatus(), 
+            exactLast4(digits), 
+            last4Prefix(digits), 
+            pageable
+        );
+    }
+    
+    @Transactional(readOnly = true)
+    public CursorPage<CardResponse> getCardsAfter(CardFilterRequest filter, String after, Long ownerId) {
+        KeysetCursor cursor = KeysetCursor.decode(after);
+        Limit limit = Limit.of(filter.getSize() + 1);
+        
+        List<CardResponse> cards;
+        
+        if (isCurrentUserAdmin()) {
+            cards = cardRepository.findResponsesAfter(filter.getStatus(), cursor.timestamp(), cursor.id(), limit);
         } else {
-            // Regular user can only see their cards
-            cards = cardRepository.findByOwnerWithFilters(
-                ownerId, 
-                filter.getStatus(), 
-                filter.getMaskedNumber(), 
-                pageable
-            );
+            String digits = searchDigits(filter.getMaskedNumber());
+            cards = cardRepository.findResponsesByOwnerAfter(ownerId, filter.getStatus(),
+                    exactLast4(digits), last4Prefix(digits), cursor.timestamp(), cursor.id(), limit);
         }
         
-        return cards.map(this::mapToCardResponse);
+        return CursorPage.of(cards, filter.getSize(), card -> new KeysetCursor(card.getCreatedAt(), card.getId()));
     }
     
     @Transactional(readOnly = true)
@@ -122,6 +150,8 @@ public class CardService {
     public CardResponse updateCardStatus(Long cardId, CardStatus status, Long ownerId) {
         boolean isAdmin = isCurrentUserAdmin();
         
+        // Before the card is read, so its balance includes every transfer the engine acknowledged on it
+        transferEngine.holdCard(cardId);
         Card card = cardRepository.findById(cardId)
                 .orElseThrow(() -> new RuntimeException("Card not found"));
         
@@ -129,17 +159,53 @@ public class CardService {
             throw new RuntimeException("Access denied");
         }
         
+        CardStatus previousStatus = card.getStatus();
         card.setStatus(status);
         Card updatedCard = cardRepository.save(card);
+        if (previousStatus != status) {
+            cardBalanceSummaryService.statusChanged(updatedCard, previousStatus);
+            transferEngine.cardChanged(cardId);
+        }
         
         log.info("Card {} status updated to {}", cardId, status);
         return mapToCardResponse(updatedCard);
     }
     
+    @Transactional
+    public CardLimitsResponse updateCardLimits(Long cardId, CardLimitsRequest request) {
+        Card card = cardRepository.findById(cardId)
+                .orElseThrow(() -> new RuntimeException("Card not found"));
+        
+        card.setDailyLimit(request.getDailyLimit());
+        card.setMonthlyLimit(request.getMonthlyLimit());
+        Card updatedCard = cardRepository.save(card);
+        cardLimitService.limitsChanged(updatedCard);
+        transferEngine.cardChanged(cardId);
+        
+        log.info("Card {} limits updated: daily {}, monthly {}", cardId,
+                request.getDailyLimit(), request.getMonthlyLimit());
+        return cardLimitService.getLimits(updatedCard);
+    }
+    
+    @Transactional(readOnly = true)
+    public CardLimitsResponse getCardLimits(Long cardId, Long ownerId) {
+        boolean isAdmin = isCurrentUserAdmin();
+        
+        Card card = cardRepository.findById(cardId)
+                .orElseThrow(() -> new RuntimeException("Card not found"));
+        
+        if (!isAdmin && !card.getOwner().getId().equals(ownerId)) {
+            throw new RuntimeException("Access denied");
+        }
+        
+        return cardLimitService.getLimits(card);
+    }
+    
     @Transactional
     public void deleteCard(Long cardId, Long ownerId) {
         boolean isAdmin = isCurrentUserAdmin();
         
+        transferEngine.holdCard(cardId);
         Card card = cardRepository.findById(cardId)
                 .orElseThrow(() -> new RuntimeException("Card not found"));
         
@@ -148,6 +214,8 @@ public class CardService {
         }
         
         cardRepository.delete(card);
+        cardBalanceSummaryService.cardRemoved(card);
+        transferEngine.cardChanged(cardId);
         log.info("Card {} deleted successfully", cardId);
     }
     
@@ -157,6 +225,22 @@ public class CardService {
                 .orElseThrow(() -> new RuntimeException("Card not found"));
     }
     
+    @Transactional(readOnly = true)
+    public Map<Long, Card> getCards(Collection<Long> cardIds) {
+        return toCardMap(cardRepository.findAllById(cardIds), cardIds);
+    }
+    
+    @Transactional
+    public Map<Long, Card> getCardsForUpdate(Collection<Long> cardIds) {
+        return toCardMap(cardRepository.findAllByIdForUpdate(cardIds), cardIds);
+    }
+    
+    @Transactional
+    public Map<Long, Card> findCardsForUpdate(Collection<Long> cardIds) {
+        return cardRepository.findAllByIdForUpdate(cardIds).stream()
+                .collect(Collectors.toMap(Card::getId, Function.identity()));
+    }
+    
     @Transactional
     public Card updateCardBalance(Card card) {
         return cardRepository.save(card);
@@ -178,6 +262,37 @@ public class CardService {
         return response;
     }
     
+    private Map<Long, Card> toCardMap(List<Card> found, Collection<Long> cardIds) {
+        Map<Long, Card> cards = found.stream()
+                .collect(Collectors.toMap(Card::getId, Function.identity()));
+        
+        if (cards.size() != new HashSet<>(cardIds).size()) {
+            throw new RuntimeException("Card not found");
+        }
+        
+        return cards;
+    }
+    
+    /**
+     * Digits of a card search term ("1234", "**** 1234", a full number...), or null when it has none.
+     * Four or more digits match the last four exactly; fewer match them as a prefix.
+     */
+    private String searchDigits(String term) {
+        if (term == null) {
+            return null;
+        }
+        String digits = term.replaceAll("\\D", "");
+        return digits.isEmpty() ? null : digits;
+    }
+    
+    private String exactLast4(String digits) {
+        return digits != null && digits.length() >= 4 ? digits.substring(digits.length() - 4) : null;
+    }
+    
+    private String last4Prefix(String digits) {
+        return digits != null && digits.length() < 4 ? digits : null;
+    }
+    
     private boolean isCurrentUserAdmin() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         return auth != null && auth.getAuthorities().stream()
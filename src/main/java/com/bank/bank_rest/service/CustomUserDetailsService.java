@@ -2,24 +2,28 @@ package com.bank.bank_rest.service;
 
 import com.bank.bank_rest.repository.UserRepository;
 import com.bank.bank_rest.model.User;
+import com.bank.bank_rest.security.PrincipalCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
     
     private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
     
+    // Not transactional: a cache hit must not borrow a pooled connection
     @Override
-    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username)
+        return principalCache.get(username, this::loadUser);
+    }
+    
+    private User loadUser(String username) {
+        return userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
-        return user;
     }
 }
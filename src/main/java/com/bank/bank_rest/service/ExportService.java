@@ -0,0 +1,144 @@
+package com.bank.bank_rest.service;
+
+import com.bank.bank_rest.dto.transfer.TransferResponse;
+import com.bank.bank_rest.dto.user.UserResponse;
+import com.bank.bank_rest.model.Money;
+import com.bank.bank_rest.repository.TransferHistoryView;
+import com.bank.bank_rest.repository.TransferRepository;
+import com.bank.bank_rest.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Full exports (transfer histories, the user list) written straight to the response. Rows come
+ * from a forward-only cursor and are written as they arrive, so memory stays flat whatever the
+ * size; a slow client blocks the writes and with them the fetching of further rows.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExportService {
+    
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // Rows between explicit flushes, so the client sees progress on long exports
+    private static final int FLUSH_EVERY = 1_000;
+    
+    private static final String CSV_HEADER =
+            "id,fromCardId,fromCardNumber,toCardId,toCardNumber,amount,description,transferDate,successful\n";
+    
+    private final TransferRepository transferRepository;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    
+    @Transactional(readOnly = true)
+    public void exportTransfers(Long ownerId, Long cardId, ExportFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        
+        long rows;
+        try (Stream<TransferHistoryView> history = cardId != null
+                ? transferRepository.streamHistoryByCard(cardId)
+                : transferRepository.streamHistoryByOwner(ownerId)) {
+            rows = format == ExportFormat.CSV
+                    ? writeCsv(history.iterator(), writer)
+                    : writeNdjson(history.map(this::toTransferResponse).iterator(), TransferResponse.class, writer);
+        }
+        writer.flush();
+        
+        log.info("Exported {} transfers as {} for user {}", rows, format, ownerId);
+    }
+    
+    @Transactional(readOnly = true)
+    public void exportUsers(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        
+        long rows;
+        try (Stream<UserResponse> users = userRepository.streamResponses()) {
+            rows = writeNdjson(users.iterator(), UserResponse.class, writer);
+        }
+        writer.flush();
+        
+        log.info("Exported {} users", rows);
+    }
+    
+    private long writeCsv(Iterator<TransferHistoryView> history, Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        long rows = 0;
+        while (history.hasNext()) {
+            TransferHistoryView transfer = history.next();
+            writer.write(String.valueOf(transfer.getId()));
+            writer.write(',');
+            writer.write(String.valueOf(transfer.getFromCardId()));
+            writer.write(',');
+            writer.write(csvField(transfer.getFromCardNumber()));
+            writer.write(',');
+            writer.write(String.valueOf(transfer.getToCardId()));
+            writer.write(',');
+            writer.write(csvField(transfer.getToCardNumber()));
+            writer.write(',');
+            writer.write(transfer.getAmount().toPlainString());
+            writer.write(',');
+            writer.write(csvField(transfer.getDescription()));
+            writer.write(',');
+            writer.write(String.valueOf(transfer.getTransferDate()));
+            writer.write(',');
+            writer.write(String.valueOf(Boolean.TRUE.equals(transfer.getSuccessful())));
+            writer.write('\n');
+            
+            if (++rows % FLUSH_EVERY == 0) {
+                writer.flush();
+            }
+        }
+        return rows;
+    }
+    
+    private <T> long writeNdjson(Iterator<T> values, Class<T> type, Writer writer) throws IOException {
+        long rows = 0;
+        // The sequence writer must not close the response stream; the container owns it
+        try (SequenceWriter json = objectMapper.writerFor(type)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n")
+                .writeValues(writer)) {
+            while (values.hasNext()) {
+                json.write(values.next());
+                
+                if (++rows % FLUSH_EVERY == 0) {
+                    json.flush();
+                }
+            }
+        }
+        if (rows > 0) {
+            writer.write('\n');
+        }
+        return rows;
+    }
+    
+    private TransferResponse toTransferResponse(TransferHistoryView transfer) {
+        return new TransferResponse(transfer.getId(), transfer.getFromCardId(), transfer.getFromCardNumber(),
+                transfer.getToCardId(), transfer.getToCardNumber(), Money.of(transfer.getAmount()), transfer.getDescription(),
+                transfer.getTransferDate(), Boolean.TRUE.equals(transfer.getSuccessful()));
+    }
+    
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
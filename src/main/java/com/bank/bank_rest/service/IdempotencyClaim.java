@@ -0,0 +1,15 @@
+package com.bank.bank_rest.service;
+
+/**
+ * One user's Idempotency-Key for a transfer request, with the hash of the request it was first sent with.
+ */
+public record IdempotencyClaim(Long ownerId, String key, String requestHash) {
+    
+    Scope scope() {
+        return new Scope(ownerId, key);
+    }
+    
+    // Keys are unique per user, not globally
+    record Scope(Long ownerId, String key) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.bank.bank_rest.service;
+
+/**
+ * Thrown by the synchronous transfer paths while the transfer engine runs with durability JOURNAL,
+ * where the engine has to be the only writer of card balances.
+ */
+public class SynchronousTransfersDisabledException extends RuntimeException {
+    
+    public SynchronousTransfersDisabledException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,593 @@
+package com.bank.bank_rest.service;
+
+import com.bank.bank_rest.config.TransferProperties;
+import com.bank.bank_rest.dto.transfer.TransferEngineShardStatus;
+import com.bank.bank_rest.dto.transfer.TransferEngineStatusResponse;
+import com.bank.bank_rest.dto.transfer.TransferRequest;
+import com.bank.bank_rest.dto.transfer.TransferResponse;
+import com.bank.bank_rest.model.Card;
+import com.bank.bank_rest.model.Money;
+import com.bank.bank_rest.model.Transfer;
+import com.bank.bank_rest.model.enums.CardStatus;
+import com.bank.bank_rest.repository.CardRepository;
+import com.bank.bank_rest.repository.TransferRepository;
+import com.bank.bank_rest.util.TransferJournal;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Optional transfer path for hot cards. Instead of every request locking the same card rows, transfers
+ * are queued to a fixed set of shards, each drained by a single thread. Transfers only move money between
+ * one user's cards, so shards are picked by owner: all of a user's cards live on one shard, which validates
+ * against balances it keeps in memory, without locks, and commits everything it drained in one transaction.
+ *
+ * The database stays the source of truth. A shard loads cards on first use, writes balances as deltas
+ * guarded by {@code balance + delta >= 0 AND status = 'ACTIVE'}, and takes the stored row back after each
+ * write. A failed guard means something else changed the card: the shard drops its copies of the batch's
+ * cards and reruns the transfers one by one against fresh rows. A copy can also be stale the other way,
+ * for example after a credit from the synchronous path, so a rejected transfer is checked once more
+ * against fresh rows before the caller hears about it. Status and limit changes, which neither check
+ * notices when they make a card stricter, evict the card through {@link #cardChanged}. Callers are
+ * answered only after commit, so a crash loses nothing that was acknowledged, and after a restart the
+ * shards load from the database again.
+ *
+ * With durability JOURNAL a shard answers once its batch is forced to the {@link TransferJournal}, and
+ * {@link TransferJournalFlusher} writes the transfers to the database in the background. The balances are
+ * then ahead of the database, so in this mode the engine must be the only writer of card balances:
+ * {@link TransferService} refuses synchronous transfers, and the flusher sets aside any record the locked
+ * rows would not allow. Before reading a card from the database a shard waits for the flusher to catch up,
+ * and a card is deleted or changes status only after its transfers are flushed, see {@link #holdCard}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+// Runs first, so the journal replay lands before CardLimitService reads the month's spend
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TransferEngine implements ApplicationRunner {
+    
+    private static final String APPLY_DELTA = """
+            UPDATE cards SET balance = balance + ?, version = version + 1, updated_at = now()
+            WHERE id = ? AND status = 'ACTIVE' AND balance + ? >= 0
+            RETURNING balance, status, expiry_date, daily_limit, monthly_limit
+            """;
+    
+    // allocationSize of Transfer's sequence generator: a nextval claims the block ending at the returned value
+    private static final int TRANSFER_ID_BLOCK = 50;
+    
+    private final CardRepository cardRepository;
+    private final TransferRepository transferRepository;
+    private final CardBalanceSummaryService cardBalanceSummaryService;
+    private final CardLimitService cardLimitService;
+    private final TransactionOperations transactionOperations;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransferJournalFlusher transferJournalFlusher;
+    private final TransferProperties transferProperties;
+    
+    private volatile Shard[] shards = new Shard[0];
+    private volatile TransferJournal journal;
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        TransferProperties.Engine engine = transferProperties.getEngine();
+        if (!engine.isEnabled()) {
+            return;
+        }
+        
+        if (engine.getDurability() == TransferProperties.Durability.JOURNAL) {
+            journal = TransferJournal.open(Path.of(engine.getJournal().getPath()), engine.getJournal().getCapacity());
+            // Replays the unflushed records before any shard reads a card
+            transferJournalFlusher.start(journal);
+        }
+        
+        Shard[] started = new Shard[engine.getShards()];
+        for (int i = 0; i < started.length; i++) {
+            started[i] = new Shard(i, engine);
+            started[i].start();
+        }
+        shards = started;
+        log.info("Transfer engine started with {} shards, durability {}", started.length, engine.getDurability());
+    }
+    
+    @PreDestroy
+    public void stop() {
+        Shard[] running = shards;
+        shards = new Shard[0];
+        for (Shard shard : running) {
+            shard.stop();
+        }
+    }
+    
+    /**
+     * Queues the transfer on its owner's shard. The future completes once the transfer is committed,
+     * or fails with the reason it was rejected.
+     */
+    public CompletableFuture<TransferResponse> submit(TransferRequest request, Long ownerId) {
+        Shard[] current = shards;
+        if (current.length == 0) {
+            return CompletableFuture.failedFuture(new RuntimeException("Transfer engine is not running"));
+        }
+        
+        Submission submission = new Submission(request, ownerId, new CompletableFuture<>());
+        if (!current[Math.floorMod(Long.hashCode(ownerId), current.length)].offer(submission)) {
+            return CompletableFuture.failedFuture(new RuntimeException("Transfer engine is overloaded, please retry"));
+        }
+        return submission.result();
+    }
+    
+    /**
+     * Makes every shard drop its copy of the card once the caller's transaction commits,
+     * so the next transfer reads the changed row.
+     */
+    public void cardChanged(Long cardId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(cardId);
+                }
+            });
+        } else {
+            invalidate(cardId);
+        }
+    }
+    
+    /**
+     * With durability JOURNAL, stops the shards from acknowledging transfers on the card until the caller's
+     * transaction completes, and waits until the ones already acknowledged are in the database. Called before
+     * a card is read for deletion or a status change, so the change sees its whole balance and no acknowledged
+     * transfer is left to a card that would refuse it.
+     */
+    public void holdCard(Long cardId) {
+        Shard[] current = shards;
+        if (journal == null || current.length == 0) {
+            return;
+        }
+        
+        List<CompletableFuture<Void>> fences = new ArrayList<>();
+        for (Shard shard : current) {
+            shard.held.merge(cardId, 1, Integer::sum);
+            CompletableFuture<Void> fence = new CompletableFuture<>();
+            shard.fences.add(fence);
+            fences.add(fence);
+        }
+        Runnable release = () -> {
+            for (Shard shard : current) {
+                shard.held.computeIfPresent(cardId, (id, holds) -> holds > 1 ? holds - 1 : null);
+            }
+        };
+        boolean inTransaction = TransactionSynchronizationManager.isSynchronizationActive();
+        if (inTransaction) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    release.run();
+                }
+            });
+        }
+        
+        Duration timeout = transferProperties.getEngine().getJournal().getAppendTimeout();
+        try {
+            // A shard passes its fence between batches, so a batch that checked the card before the hold is appended
+            CompletableFuture.allOf(fences.toArray(CompletableFuture[]::new))
+                    .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            if (!journal.awaitFlushed(timeout)) {
+                throw new RuntimeException("Transfer journal is not being flushed");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the transfer journal");
+        } catch (ExecutionException | TimeoutException e) {
+            throw new RuntimeException("Transfer engine did not release card " + cardId + ", please retry");
+        } finally {
+            if (!inTransaction) {
+                release.run();
+            }
+        }
+    }
+    
+    private void invalidate(Long cardId) {
+        for (Shard shard : shards) {
+            shard.invalidated.add(cardId);
+        }
+    }
+    
+    public TransferEngineStatusResponse getStatus() {
+        Shard[] current = shards;
+        return new TransferEngineStatusResponse(current.length > 0,
+                Arrays.stream(current).map(Shard::status).toList());
+    }
+    
+    private record Submission(TransferRequest request, Long ownerId, CompletableFuture<TransferResponse> result) {
+    }
+    
+    /**
+     * One queue and the thread that drains it. Card copies are touched by that thread only.
+     */
+    private final class Shard implements Runnable {
+        
+        private final int index;
+        private final int batchSize;
+        private final BlockingQueue<Submission> queue;
+        private final Map<Long, Card> cards;
+        // Filled by other threads, drained by the shard before it reads its copies
+        private final Queue<Long> invalidated = new ConcurrentLinkedQueue<>();
+        // Cards that must not take transfers, with the number of holds on each
+        private final Map<Long, Integer> held = new ConcurrentHashMap<>();
+        // Completed by the shard between batches
+        private final Queue<CompletableFuture<Void>> fences = new ConcurrentLinkedQueue<>();
+        private final Thread thread;
+        private long nextTransferId = 1;
+        private long lastTransferId;
+        private volatile boolean running = true;
+        private volatile int cachedCards;
+        private final AtomicLong committedBatches = new AtomicLong();
+        private final AtomicLong committedTransfers = new AtomicLong();
+        private final AtomicLong rejectedTransfers = new AtomicLong();
+        private final AtomicLong failedBatches = new AtomicLong();
+        
+        Shard(int index, TransferProperties.Engine engine) {
+            this.index = index;
+            this.batchSize = engine.getBatchSize();
+            this.queue = new ArrayBlockingQueue<>(engine.getQueueCapacity());
+            int maxCards = engine.getCachedCardsPerShard();
+            // Access order, so the least recently used card is dropped once the shard holds too many
+            this.cards = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Card> eldest) {
+                    return size() > maxCards;
+                }
+            };
+            this.thread = new Thread(this, "transfer-shard-" + index);
+        }
+        
+        void start() {
+            thread.start();
+        }
+        
+        void stop() {
+            running = false;
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            failQueued();
+        }
+        
+        boolean offer(Submission submission) {
+            if (!queue.offer(submission)) {
+                return false;
+            }
+            // Stopped between the caller reading the shards and the offer: nobody will drain it
+            if (!running && queue.remove(submission)) {
+                submission.result().completeExceptionally(new RuntimeException("Transfer engine is not running"));
+            }
+            return true;
+        }
+        
+        @Override
+        public void run() {
+            List<Submission> batch = new ArrayList<>(batchSize);
+            while (running) {
+                passFences();
+                try {
+                    Submission first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                    process(batch, false);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (RuntimeException e) {
+                    // process() answers every submission itself; this only keeps the shard alive
+                    log.error("Transfer shard {} failed to process a batch", index, e);
+                    batch.forEach(submission -> submission.result().completeExceptionally(e));
+                } finally {
+                    batch.clear();
+                    cachedCards = cards.size();
+                }
+            }
+            failQueued();
+            passFences();
+        }
+        
+        private void passFences() {
+            CompletableFuture<Void> fence;
+            while ((fence = fences.poll()) != null) {
+                fence.complete(null);
+            }
+        }
+        
+        private void process(List<Submission> batch, boolean retry) {
+            TransferResponse[] responses = new TransferResponse[batch.size()];
+            RuntimeException[] rejections = new RuntimeException[batch.size()];
+            
+            try {
+                if (journal != null) {
+                    append(batch, responses, rejections);
+                } else {
+                    commit(batch, responses, rejections);
+                }
+            } catch (RuntimeException e) {
+                failedBatches.incrementAndGet();
+                // The copies of these cards may be stale now; the next attempt reloads them
+                batch.forEach(this::evict);
+                // A journal failure is not about the cards, so retrying one by one would not help
+                if (retry || journal != null) {
+                    log.error("Transfer failed: {}", e.getMessage());
+                    batch.forEach(submission -> submission.result().completeExceptionally(
+                            new RuntimeException("Transfer failed: " + e.getMessage())));
+                    return;
+                }
+                log.warn("Transfer shard {} rolled back a batch of {} ({}), retrying them one by one",
+                        index, batch.size(), e.getMessage());
+                for (Submission submission : batch) {
+                    process(List.of(submission), true);
+                }
+                return;
+            }
+            
+            long committed = 0;
+            List<Submission> rejected = new ArrayList<>();
+            for (int i = 0; i < batch.size(); i++) {
+                if (rejections[i] != null && !retry) {
+                    rejected.add(batch.get(i));
+                } else if (rejections[i] != null) {
+                    batch.get(i).result().completeExceptionally(rejections[i]);
+                } else {
+                    batch.get(i).result().complete(responses[i]);
+                    committed++;
+                }
+            }
+            committedBatches.incrementAndGet();
+            committedTransfers.addAndGet(committed);
+            if (retry) {
+                rejectedTransfers.addAndGet(batch.size() - committed);
+            }
+            
+            // The rejection may come from a stale copy, e.g. a balance credited behind the shard's back,
+            // so it only stands if fresh rows say the same
+            if (!rejected.isEmpty()) {
+                rejected.forEach(this::evict);
+                process(rejected, true);
+            }
+        }
+        
+        private void commit(List<Submission> batch, TransferResponse[] responses, RuntimeException[] rejections) {
+            load(batch);
+            
+            transactionOperations.executeWithoutResult(status -> {
+                // Net change per card; a TreeMap writes the rows in id order, the order the other paths lock them in
+                Map<Long, Money> deltas = new TreeMap<>();
+                List<Transfer> transfers = new ArrayList<>();
+                List<Integer> transferIndexes = new ArrayList<>();
+                
+                // Transfers are applied in queue order, so later ones see the balances left by earlier ones
+                for (int i = 0; i < batch.size(); i++) {
+                    TransferRequest request = batch.get(i).request();
+                    Card fromCard = cards.get(request.getFromCardId());
+                    Card toCard = cards.get(request.getToCardId());
+                    
+                    try {
+                        if (fromCard == null || toCard == null) {
+                            throw new RuntimeException("Card not found");
+                        }
+                        TransferService.validateTransfer(fromCard, toCard, request.getAmount(), batch.get(i).ownerId());
+                        // Registered with this transaction, so a rollback releases the amount again
+                        cardLimitService.reserve(fromCard, request.getAmount());
+                    } catch (RuntimeException e) {
+                        rejections[i] = e;
+                        continue;
+                    }
+                    
+                    fromCard.setBalance(fromCard.getBalance().minus(request.getAmount()));
+                    toCard.setBalance(toCard.getBalance().plus(request.getAmount()));
+                    deltas.merge(fromCard.getId(), request.getAmount().negate(), Money::plus);
+                    deltas.merge(toCard.getId(), request.getAmount(), Money::plus);
+                    
+                    Transfer transfer = new Transfer();
+                    transfer.setFromCard(fromCard);
+                    transfer.setToCard(toCard);
+                    transfer.setAmount(request.getAmount());
+                    transfer.setDescription(request.getDescription());
+                    transfers.add(transfer);
+                    transferIndexes.add(i);
+                }
+                
+                if (transfers.isEmpty()) {
+                    return;
+                }
+                
+                deltas.forEach(this::applyDelta);
+                List<Transfer> savedTransfers = transferRepository.saveAll(transfers);
+                cardBalanceSummaryService.transfersApplied(savedTransfers);
+                for (int i = 0; i < savedTransfers.size(); i++) {
+                    responses[transferIndexes.get(i)] = TransferService.mapToTransferResponse(savedTransfers.get(i));
+                }
+            });
+        }
+        
+        private void append(List<Submission> batch, TransferResponse[] responses, RuntimeException[] rejections) {
+            load(batch);
+            
+            List<TransferJournal.Entry> entries = new ArrayList<>();
+            List<Integer> entryIndexes = new ArrayList<>();
+            LocalDateTime transferDate = LocalDateTime.now();
+            
+            for (int i = 0; i < batch.size(); i++) {
+                TransferRequest request = batch.get(i).request();
+                Card fromCard = cards.get(request.getFromCardId());
+                Card toCard = cards.get(request.getToCardId());
+                
+                try {
+                    if (held.containsKey(request.getFromCardId()) || held.containsKey(request.getToCardId())) {
+                        throw new RuntimeException("Card is being changed, please retry");
+                    }
+                    if (fromCard == null || toCard == null) {
+                        throw new RuntimeException("Card not found");
+                    }
+                    TransferService.validateTransfer(fromCard, toCard, request.getAmount(), batch.get(i).ownerId());
+                    if (!TransferJournal.fits(request.getDescription())) {
+                        throw new RuntimeException("Description is too long");
+                    }
+                    // There is no transaction to release the reservation: if the append fails the counters
+                    // stay high until restart, which errs on the side of the limit
+                    cardLimitService.reserve(fromCard, request.getAmount());
+                } catch (RuntimeException e) {
+                    rejections[i] = e;
+                    continue;
+                }
+                
+                fromCard.setBalance(fromCard.getBalance().minus(request.getAmount()));
+                toCard.setBalance(toCard.getBalance().plus(request.getAmount()));
+                entries.add(new TransferJournal.Entry(0, nextTransferId(), fromCard.getId(), toCard.getId(),
+                        request.getAmount().minorUnits(), transferDate, request.getDescription()));
+                entryIndexes.add(i);
+            }
+            
+            if (entries.isEmpty()) {
+                return;
+            }
+            
+            // One fsync for the whole batch; the transfers count as committed once it returns
+            List<TransferJournal.Entry> written =
+                    journal.append(entries, transferProperties.getEngine().getJournal().getAppendTimeout());
+            for (int i = 0; i < written.size(); i++) {
+                TransferJournal.Entry entry = written.get(i);
+                Card fromCard = cards.get(entry.fromCardId());
+                Card toCard = cards.get(entry.toCardId());
+                responses[entryIndexes.get(i)] = new TransferResponse(entry.transferId(),
+                        fromCard.getId(), fromCard.getMaskedNumber(), toCard.getId(), toCard.getMaskedNumber(),
+                        Money.ofMinor(entry.amountMinor()), entry.description(), entry.transferDate(), true);
+            }
+        }
+        
+        /**
+         * Transfer ids are taken from transfers_id_seq a block at a time, as Hibernate's pooled
+         * optimizer does, so the flusher can insert them with the ids already returned to the caller.
+         */
+        private long nextTransferId() {
+            if (nextTransferId > lastTransferId) {
+                long blockEnd;
+                do {
+                    blockEnd = jdbcTemplate.queryForObject("SELECT nextval('transfers_id_seq')", Long.class);
+                } while (blockEnd < TRANSFER_ID_BLOCK);
+                nextTransferId = blockEnd - TRANSFER_ID_BLOCK + 1;
+                lastTransferId = blockEnd;
+            }
+            return nextTransferId++;
+        }
+        
+        /**
+         * Reads the batch's cards the shard does not hold yet. This runs outside the batch transaction,
+         * so the copies are detached and JPA never flushes the shard's in-memory balances.
+         */
+        private void load(List<Submission> batch) {
+            Long invalidatedId;
+            while ((invalidatedId = invalidated.poll()) != null) {
+                cards.remove(invalidatedId);
+            }
+            
+            Set<Long> missing = new HashSet<>();
+            for (Submission submission : batch) {
+                if (!cards.containsKey(submission.request().getFromCardId())) {
+                    missing.add(submission.request().getFromCardId());
+                }
+                if (!cards.containsKey(submission.request().getToCardId())) {
+                    missing.add(submission.request().getToCardId());
+                }
+            }
+            if (missing.isEmpty()) {
+                return;
+            }
+            // The database lags the journal: a card read now must already include every acknowledged transfer
+            if (journal != null && !awaitFlushed()) {
+                throw new RuntimeException("Transfer journal is not being flushed");
+            }
+            cardRepository.findAllById(missing).forEach(card -> cards.put(card.getId(), card));
+        }
+        
+        private boolean awaitFlushed() {
+            try {
+                return journal.awaitFlushed(transferProperties.getEngine().getJournal().getAppendTimeout());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        
+        private void applyDelta(Long cardId, Money delta) {
+            // Even a zero net change goes through the guard, which catches a card blocked behind the shard's back
+            BigDecimal amount = delta.toBigDecimal();
+            Boolean applied = jdbcTemplate.query(APPLY_DELTA, rs -> {
+                if (!rs.next()) {
+                    return false;
+                }
+                Card card = cards.get(cardId);
+                card.setBalance(Money.of(rs.getBigDecimal("balance")));
+                card.setStatus(CardStatus.valueOf(rs.getString("status")));
+                card.setExpiryDate(rs.getDate("expiry_date").toLocalDate());
+                card.setDailyLimit(rs.getBigDecimal("daily_limit"));
+                card.setMonthlyLimit(rs.getBigDecimal("monthly_limit"));
+                return true;
+            }, amount, cardId, amount);
+            
+            if (!Boolean.TRUE.equals(applied)) {
+                throw new RuntimeException("Card " + cardId + " was changed outside the transfer engine");
+            }
+        }
+        
+        private void evict(Submission submission) {
+            cards.remove(submission.request().getFromCardId());
+            cards.remove(submission.request().getToCardId());
+        }
+        
+        private void failQueued() {
+            List<Submission> left = new ArrayList<>();
+            queue.drainTo(left);
+            left.forEach(submission ->
+                    submission.result().completeExceptionally(new RuntimeException("Transfer engine is not running")));
+        }
+        
+        TransferEngineShardStatus status() {
+            return new TransferEngineShardStatus(index, queue.size(), cachedCards, committedBatches.get(),
+                    committedTransfers.get(), rejectedTransfers.get(), failedBatches.get());
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.bank.bank_rest.service;
+
+import com.bank.bank_rest.config.TransferProperties;
+import com.bank.bank_rest.dto.transfer.TransferRequest;
+import com.bank.bank_rest.dto.transfer.TransferResponse;
+import com.bank.bank_rest.model.TransferIdempotencyKey;
+import com.bank.bank_rest.repository.TransferIdempotencyKeyRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Makes POST /api/transfers safe to retry with an Idempotency-Key header. Keys are checked in three places:
+ * <ol>
+ *   <li>a bounded in-memory cache of completed responses, which answers most retries;</li>
+ *   <li>a map of transfers still running in this instance, so a duplicate waits for the first one's result;</li>
+ *   <li>the transfer_idempotency_keys table, written first inside the transfer transaction. A duplicate
+ *       from another instance, or after the cache expired, finds the committed row and replays its response
+ *       without touching the cards.</li>
+ * </ol>
+ * A transfer that fails rolls its key back, so the same key can be retried.
+ */
+@Slf4j
+@Service
+public class TransferIdempotencyService {
+    
+    private static final int MAX_KEY_LENGTH = 128;
+    
+    private final TransferIdempotencyKeyRepository keyRepository;
+    private final TransactionOperations transactionOperations;
+    private final TransferProperties transferProperties;
+    private final ObjectMapper objectMapper;
+    private final Cache<IdempotencyClaim.Scope, CompletedTransfer> completed;
+    private final ConcurrentHashMap<IdempotencyClaim.Scope, CompletableFuture<CompletedTransfer>> inFlight =
+            new ConcurrentHashMap<>();
+    
+    public TransferIdempotencyService(TransferIdempotencyKeyRepository keyRepository,
+                                      TransactionOperations transactionOperations,
+                                      TransferProperties transferProperties,
+                                      ObjectMapper objectMapper,
+                                      MeterRegistry meterRegistry) {
+        this.keyRepository = keyRepository;
+        this.transactionOperations = transactionOperations;
+        this.transferProperties = transferProperties;
+        this.objectMapper = objectMapper;
+        TransferProperties.Idempotency idempotency = transferProperties.getIdempotency();
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(idempotency.getCacheSize())
+                .expireAfterWrite(idempotency.getCacheTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, completed, "transfer-idempotency-keys");
+    }
+    
+    /**
+     * Runs the transfer once per (user, key). Duplicates get the first response, or the first failure
+     * if they arrive while it is still running.
+     */
+    public TransferResponse deduplicate(Long ownerId, String key, TransferRequest request,
+                                        Function<IdempotencyClaim, TransferResponse> transfer) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new RuntimeException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        
+        IdempotencyClaim claim = new IdempotencyClaim(ownerId, key, hash(request));
+        
+        CompletedTransfer cached = completed.getIfPresent(claim.scope());
+        if (cached != null) {
+            return cached.replayFor(claim);
+        }
+        
+        CompletableFuture<CompletedTransfer> mine = new CompletableFuture<>();
+        CompletableFuture<CompletedTransfer> running = inFlight.putIfAbsent(claim.scope(), mine);
+        if (running != null) {
+            return await(running).replayFor(claim);
+        }
+        
+        try {
+            CompletedTransfer result = new CompletedTransfer(claim.requestHash(), transfer.apply(claim));
+            // The transfer has committed by now, so the response is safe to hand to later duplicates
+            completed.put(claim.scope(), result);
+            mine.complete(result);
+            return result.response();
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(claim.scope(), mine);
+        }
+    }
+    
+    /**
+     * Inserts the key row at the start of the transfer transaction. Returns the stored response
+     * if the key was already used, in which case the caller must not touch any card.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<TransferResponse> claim(IdempotencyClaim claim) {
+        if (keyRepository.insertIfAbsent(claim.ownerId(), claim.key(), claim.requestHash()) == 1) {
+            return Optional.empty();
+        }
+        
+        TransferIdempotencyKey stored = keyRepository.findByOwnerIdAndIdempotencyKey(claim.ownerId(), claim.key())
+                .orElseThrow(() -> new RuntimeException("Idempotency-Key is being cleaned up, please retry"));
+        if (!stored.getRequestHash().equals(claim.requestHash())) {
+            throw new RuntimeException("Idempotency-Key was already used for a different transfer");
+        }
+        
+        log.info("Replaying transfer {} for Idempotency-Key of user {}", stored.getTransferId(), claim.ownerId());
+        return Optional.of(readResponse(stored.getResponse()));
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void complete(IdempotencyClaim claim, TransferResponse response) {
+        keyRepository.storeResponse(claim.ownerId(), claim.key(), response.getId(), writeResponse(response));
+    }
+    
+    @Scheduled(fixedDelayString = "${bank.transfer.idempotency.cleanup-interval:PT10M}")
+    public void deleteExpiredKeys() {
+        TransferProperties.Idempotency idempotency = transferProperties.getIdempotency();
+        LocalDateTime cutoff = LocalDateTime.now().minus(idempotency.getRetention());
+        
+        long total = 0;
+        int deleted;
+        do {
+            deleted = transactionOperations.execute(status ->
+                    keyRepository.deleteCreatedBefore(cutoff, idempotency.getCleanupBatchSize()));
+            total += deleted;
+        } while (deleted == idempotency.getCleanupBatchSize());
+        
+        if (total > 0) {
+            log.info("Deleted {} idempotency keys created before {}", total, cutoff);
+        }
+    }
+    
+    private CompletedTransfer await(CompletableFuture<CompletedTransfer> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+    
+    private String hash(TransferRequest request) {
+        String canonical = request.getFromCardId() + "|" + request.getToCardId() + "|"
+                + request.getAmount().toBigDecimal().stripTrailingZeros().toPlainString() + "|"
+                + (request.getDescription() != null ? request.getDescription() : "");
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+    
+    private String writeResponse(TransferResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to store transfer response", e);
+        }
+    }
+    
+    private TransferResponse readResponse(String json) {
+        try {
+            return objectMapper.readValue(json, TransferResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to read stored transfer response", e);
+        }
+    }
+    
+    /**
+     * A transfer's response together with the request it answered.
+     */
+    private record CompletedTransfer(String requestHash, TransferResponse response) {
+        
+        TransferResponse replayFor(IdempotencyClaim claim) {
+            if (!requestHash.equals(claim.requestHash())) {
+                throw new RuntimeException("Idempotency-Key was already used for a different transfer");
+            }
+            return response;
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package com.bank.bank_rest.service;
+
+import com.bank.bank_rest.config.TransferProperties;
+import com.bank.bank_rest.model.Card;
+import com.bank.bank_rest.model.Money;
+import com.bank.bank_rest.model.Transfer;
+import com.bank.bank_rest.model.enums.CardStatus;
+import com.bank.bank_rest.repository.CardRepository;
+import com.bank.bank_rest.util.TransferJournal;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Moves journaled transfers into the database: inserts them into transfers, applies the balance changes
+ * to cards and advances the journal's checkpoint. Every transfer carries its journal sequence number,
+ * so a chunk that was committed just before a crash, but not checkpointed, is skipped on replay.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TransferJournalFlusher {
+    
+    private static final String STORED_SEQS =
+            "SELECT journal_seq FROM transfers WHERE journal_seq BETWEEN ? AND ? " +
+            "UNION ALL SELECT journal_seq FROM transfer_journal_dead_letters WHERE journal_seq BETWEEN ? AND ?";
+    
+    // Locked in id order like the other paths lock them; nothing can change or delete the rows until the chunk commits
+    private static final String LOCK_CARDS =
+            "SELECT id, balance, status FROM cards WHERE id = ANY(?) ORDER BY id FOR NO KEY UPDATE";
+    
+    // The entries were checked against the locked rows; the guard makes a missed case fail instead of overdrawing
+    private static final String APPLY_DELTA =
+            "UPDATE cards SET balance = balance + ?, version = version + 1, updated_at = now() " +
+            "WHERE id = ? AND status = 'ACTIVE' AND balance + ? >= 0";
+    
+    private static final String INSERT_DEAD_LETTER =
+            "INSERT INTO transfer_journal_dead_letters (journal_seq, transfer_id, from_card_id, to_card_id, amount, " +
+            "transfer_date, description, reason, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, now()) " +
+            "ON CONFLICT (journal_seq) DO NOTHING";
+    
+    private static final String INSERT_TRANSFER =
+            "INSERT INTO transfers (id, from_card_id, to_card_id, amount, transfer_date, description, successful, " +
+            "journal_seq) VALUES (?, ?, ?, ?, ?, ?, true, ?)";
+    
+    private final CardRepository cardRepository;
+    private final CardBalanceSummaryService cardBalanceSummaryService;
+    private final TransactionOperations transactionOperations;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransferProperties transferProperties;
+    
+    private volatile TransferJournal journal;
+    private volatile boolean running;
+    private Thread thread;
+    
+    /**
+     * Replays whatever the journal holds past its checkpoint, then keeps flushing in the background.
+     * Returns only after the replay, so cards read from the database afterwards include every
+     * acknowledged transfer.
+     */
+    public void start(TransferJournal journal) {
+        this.journal = journal;
+        int replayed = 0;
+        int flushed;
+        while ((flushed = flushChunk()) > 0) {
+            replayed += flushed;
+        }
+        if (replayed > 0) {
+            log.info("Replayed {} transfers from the transfer journal", replayed);
+        }
+        
+        running = true;
+        thread = new Thread(this::run, "transfer-journal-flusher");
+        thread.start();
+    }
+    
+    /**
+     * Latest bound below which every journaled transfer is already in the database, capped at {@code upTo}.
+     * Flushed rows keep the date they were journaled with, so a reader moving a (transfer_date, id)
+     * watermark must stay below the oldest record still in the journal. Empty while a configured journal
+     * has not been replayed yet, because its backlog is unknown until then.
+     */
+    public Optional<LocalDateTime> flushedBefore(LocalDateTime upTo) {
+        if (!transferProperties.getEngine().journaled()) {
+            return Optional.of(upTo);
+        }
+        TransferJournal current = journal;
+        if (current == null || !running) {
+            return Optional.empty();
+        }
+        LocalDateTime oldest = current.oldestUnflushedDate();
+        return Optional.of(oldest != null && oldest.isBefore(upTo) ? oldest : upTo);
+    }
+    
+    @PreDestroy
+    public void stop() {
+        if (thread == null) {
+            return;
+        }
+        running = false;
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        journal.close();
+    }
+    
+    private void run() {
+        TransferProperties.Journal settings = transferProperties.getEngine().getJournal();
+        while (running) {
+            try {
+                journal.awaitUnflushed(settings.getFlushInterval());
+                while (flushChunk() > 0) {
+                    // Keep going while there is a backlog
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // The records stay in the journal and are retried on the next pass
+                log.error("Failed to flush the transfer journal: {}", e.getMessage());
+                sleep(settings.getFlushInterval().toMillis());
+            }
+        }
+        // Whatever was acknowledged before shutdown goes to the database now rather than at the next start
+        try {
+            while (flushChunk() > 0) {
+                // Drain
+            }
+        } catch (RuntimeException e) {
+            log.warn("Transfer journal not fully flushed at shutdown, it will be replayed on start: {}", e.getMessage());
+        }
+    }
+    
+    private int flushChunk() {
+        List<TransferJournal.Entry> entries =
+                journal.readUnflushed(transferProperties.getEngine().getJournal().getFlushChunkSize());
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        
+        long firstSeq = entries.get(0).seq();
+        long lastSeq = entries.get(entries.size() - 1).seq();
+        transactionOperations.executeWithoutResult(status -> {
+            Set<Long> stored = new HashSet<>(jdbcTemplate.queryForList(STORED_SEQS, Long.class,
+                    firstSeq, lastSeq, firstSeq, lastSeq));
+            List<TransferJournal.Entry> unstored = entries.stream()
+                    .filter(entry -> !stored.contains(entry.seq()))
+                    .toList();
+            
+            // Replayed in journal order against the locked rows. The engine never acknowledges a transfer that
+            // fails here unless something else wrote the cards; such a record can never be applied, and retrying
+            // it would hold up every record after it
+            Map<Long, LockedCard> cards = lockCards(unstored);
+            List<TransferJournal.Entry> pending = new ArrayList<>();
+            for (TransferJournal.Entry entry : unstored) {
+                String reason = rejection(entry, cards);
+                if (reason != null) {
+                    deadLetter(entry, reason);
+                    continue;
+                }
+                Money amount = Money.ofMinor(entry.amountMinor());
+                cards.computeIfPresent(entry.fromCardId(), (id, card) -> card.plus(amount.negate()));
+                cards.computeIfPresent(entry.toCardId(), (id, card) -> card.plus(amount));
+                pending.add(entry);
+            }
+            if (pending.isEmpty()) {
+                return;
+            }
+            
+            // Net change per card, written in id order like the other transfer paths lock them
+            Map<Long, Money> deltas = new TreeMap<>();
+            for (TransferJournal.Entry entry : pending) {
+                Money amount = Money.ofMinor(entry.amountMinor());
+                deltas.merge(entry.fromCardId(), amount.negate(), Money::plus);
+                deltas.merge(entry.toCardId(), amount, Money::plus);
+            }
+            deltas.forEach((cardId, delta) -> {
+                if (jdbcTemplate.update(APPLY_DELTA, delta.toBigDecimal(), cardId, delta.toBigDecimal()) != 1) {
+                    throw new RuntimeException("Card " + cardId + " refused a journaled balance change");
+                }
+            });
+            
+            jdbcTemplate.batchUpdate(INSERT_TRANSFER, pending, pending.size(), (ps, entry) -> {
+                ps.setLong(1, entry.transferId());
+                ps.setLong(2, entry.fromCardId());
+                ps.setLong(3, entry.toCardId());
+                ps.setBigDecimal(4, BigDecimal.valueOf(entry.amountMinor(), 2));
+                ps.setTimestamp(5, Timestamp.valueOf(entry.transferDate()));
+                ps.setString(6, entry.description());
+                ps.setLong(7, entry.seq());
+            });
+            
+            cardBalanceSummaryService.transfersApplied(toTransfers(pending, deltas.keySet()));
+        });
+        
+        journal.checkpoint(lastSeq);
+        return entries.size();
+    }
+    
+    private Map<Long, LockedCard> lockCards(List<TransferJournal.Entry> entries) {
+        Set<Long> cardIds = new TreeSet<>();
+        entries.forEach(entry -> {
+            cardIds.add(entry.fromCardId());
+            cardIds.add(entry.toCardId());
+        });
+        Map<Long, LockedCard> cards = new HashMap<>();
+        if (cardIds.isEmpty()) {
+            return cards;
+        }
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(LOCK_CARDS);
+            ps.setArray(1, con.createArrayOf("bigint", cardIds.toArray()));
+            return ps;
+        }, rs -> {
+            cards.put(rs.getLong("id"), new LockedCard(Money.of(rs.getBigDecimal("balance")), rs.getString("status")));
+        });
+        return cards;
+    }
+    
+    private static String rejection(TransferJournal.Entry entry, Map<Long, LockedCard> cards) {
+        LockedCard from = cards.get(entry.fromCardId());
+        LockedCard to = cards.get(entry.toCardId());
+        if (from == null) {
+            return "Card " + entry.fromCardId() + " no longer exists";
+        }
+        if (to == null) {
+            return "Card " + entry.toCardId() + " no longer exists";
+        }
+        if (!from.active()) {
+            return "Card " + entry.fromCardId() + " is " + from.status();
+        }
+        if (!to.active()) {
+            return "Card " + entry.toCardId() + " is " + to.status();
+        }
+        if (from.balance().compareTo(Money.ofMinor(entry.amountMinor())) < 0) {
+            return "Card " + entry.fromCardId() + " has insufficient balance";
+        }
+        return null;
+    }
+    
+    /**
+     * Sets an acknowledged transfer aside for manual resolution. None of it is applied: the caller was
+     * told it succeeded, so an operator has to decide whether the money goes back or elsewhere.
+     */
+    private void deadLetter(TransferJournal.Entry entry, String reason) {
+        log.error("Journaled transfer {} (journal seq {}) from card {} to card {} cannot be applied, " +
+                        "moved to transfer_journal_dead_letters: {}",
+                entry.transferId(), entry.seq(), entry.fromCardId(), entry.toCardId(), reason);
+        jdbcTemplate.update(INSERT_DEAD_LETTER, entry.seq(), entry.transferId(), entry.fromCardId(),
+                entry.toCardId(), BigDecimal.valueOf(entry.amountMinor(), 2), Timestamp.valueOf(entry.transferDate()),
+                entry.description(), reason);
+    }
+    
+    /**
+     * The summary hook works on Transfer entities; these are built for it only and never persisted.
+     */
+    private List<Transfer> toTransfers(List<TransferJournal.Entry> entries, Set<Long> cardIds) {
+        Map<Long, Card> cards = cardRepository.findAllById(cardIds).stream()
+                .collect(Collectors.toMap(Card::getId, Function.identity()));
+        return entries.stream().map(entry -> {
+            Transfer transfer = new Transfer();
+            transfer.setId(entry.transferId());
+            transfer.setFromCard(cards.get(entry.fromCardId()));
+            transfer.setToCard(cards.get(entry.toCardId()));
+            transfer.setAmount(Money.ofMinor(entry.amountMinor()));
+            transfer.setTransferDate(entry.transferDate());
+            transfer.setDescription(entry.description());
+            transfer.setJournalSeq(entry.seq());
+            return transfer;
+        }).toList();
+    }
+    
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private record LockedCard(Money balance, String status) {
+        
+        boolean active() {
+            return CardStatus.ACTIVE.name().equals(status);
+        }
+        
+        LockedCard plus(Money delta) {
+            return new LockedCard(balance.plus(delta), status);
+        }
+    }
+}
@@ -1,20 +1,36 @@
 package com.bank.bank_rest.service;
 
+import com.bank.bank_rest.config.TransferProperties;
+import com.bank.bank_rest.config.TransferProperties.LockingMode;
+import com.bank.bank_rest.dto.CursorPage;
+import com.bank.bank_rest.dto.transfer.BatchTransferItemResult;
+import com.bank.bank_rest.dto.transfer.BatchTransferResponse;
 import com.bank.bank_rest.dto.transfer.TransferRequest;
 import com.bank.bank_rest.dto.transfer.TransferResponse;
 import com.bank.bank_rest.model.Card;
+import com.bank.bank_rest.model.Money;
 import com.bank.bank_rest.model.Transfer;
+import com.bank.bank_rest.repository.TransferHistoryView;
 import com.bank.bank_rest.repository.TransferRepository;
+import com.bank.bank_rest.util.KeysetCursor;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
 
-import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Slf4j
 @Service
@@ -23,41 +39,173 @@ public class TransferService {
     
     private final TransferRepository transferRepository;
     private final CardService cardService;
+    private final CardBalanceSummaryService cardBalanceSummaryService;
+    private final CardLimitService cardLimitService;
+    private final TransferIdempotencyService transferIdempotencyService;
+    private final TransferProperties transferProperties;
+    private final TransactionOperations transactionOperations;
+    private final MeterRegistry meterRegistry;
     
-    @Transactional
     public TransferResponse transferMoney(TransferRequest request, Long ownerId) {
-        // Validate from and to cards exist and belong to user
-        Card fromCard = cardService.getCardById(request.getFromCardId());
-        Card toCard = cardService.getCardById(request.getToCardId());
-        
-        // Security check - only allow transfers between user's own cards
-        if (!fromCard.getOwner().getId().equals(ownerId) || !toCard.getOwner().getId().equals(ownerId)) {
-            throw new RuntimeException("Access denied - can only transfer between own cards");
+        return transferMoney(request, ownerId, null);
+    }
+    
+    /**
+     * With an idempotency key, a repeated request returns the first transfer's response instead of moving money again.
+     */
+    public TransferResponse transferMoney(TransferRequest request, Long ownerId, String idempotencyKey) {
+        requireSynchronousTransfers();
+        if (idempotencyKey == null) {
+            return transfer(request, ownerId, null);
         }
-        
-        // Basic validation
-        if (request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
-            throw new RuntimeException("Transfer amount must be greater than 0");
+        return transferIdempotencyService.deduplicate(ownerId, idempotencyKey, request,
+                claim -> transfer(request, ownerId, claim));
+    }
+    
+    private TransferResponse transfer(TransferRequest request, Long ownerId, IdempotencyClaim claim) {
+        if (transferProperties.getLockingMode() == LockingMode.OPTIMISTIC) {
+            return transferWithRetry(request, ownerId, claim);
+        }
+        return transactionOperations.execute(status -> executeTransfer(request, ownerId, claim));
+    }
+    
+    public BatchTransferResponse transferBatch(List<TransferRequest> requests, Long ownerId) {
+        requireSynchronousTransfers();
+        int maxSize = transferProperties.getBatch().getMaxSize();
+        if (requests.size() > maxSize) {
+            throw new RuntimeException("Batch cannot contain more than " + maxSize + " transfers");
+        }
+        return transactionOperations.execute(status -> executeBatch(requests, ownerId));
+    }
+    
+    private BatchTransferResponse executeBatch(List<TransferRequest> requests, Long ownerId) {
+        Set<Long> cardIds = new HashSet<>();
+        for (TransferRequest request : requests) {
+            cardIds.add(request.getFromCardId());
+            cardIds.add(request.getToCardId());
         }
         
-        if (fromCard.getId().equals(toCard.getId())) {
-            throw new RuntimeException("Cannot transfer money to the same card");
+        // One query locks every card of the batch in id order, whatever order the items come in
+        Map<Long, Card> cards = cardService.findCardsForUpdate(cardIds);
+        
+        BatchTransferItemResult[] results = new BatchTransferItemResult[requests.size()];
+        List<Transfer> transfers = new ArrayList<>();
+        List<Integer> transferIndexes = new ArrayList<>();
+        
+        // Items are applied in order, so later items see the balances left by earlier ones
+        for (int i = 0; i < requests.size(); i++) {
+            TransferRequest request = requests.get(i);
+            Card fromCard = cards.get(request.getFromCardId());
+            Card toCard = cards.get(request.getToCardId());
+            
+            try {
+                if (fromCard == null || toCard == null) {
+                    throw new RuntimeException("Card not found");
+                }
+                validateTransfer(fromCard, toCard, request.getAmount(), ownerId);
+                cardLimitService.reserve(fromCard, request.getAmount());
+            } catch (RuntimeException e) {
+                results[i] = new BatchTransferItemResult(i, false, null, e.getMessage());
+                continue;
+            }
+            
+            fromCard.setBalance(fromCard.getBalance().minus(request.getAmount()));
+            toCard.setBalance(toCard.getBalance().plus(request.getAmount()));
+            
+            Transfer transfer = new Transfer();
+            transfer.setFromCard(fromCard);
+            transfer.setToCard(toCard);
+            transfer.setAmount(request.getAmount());
+            transfer.setDescription(request.getDescription());
+            transfers.add(transfer);
+            transferIndexes.add(i);
         }
         
-        // Check if both cards are active
-        if (!fromCard.canTransfer()) {
-            throw new RuntimeException("Source card is not available for transfers");
+        // Cards are managed entities: each one is flushed once at commit, however many items touched it
+        List<Transfer> savedTransfers = transferRepository.saveAll(transfers);
+        cardBalanceSummaryService.transfersApplied(savedTransfers);
+        for (int i = 0; i < savedTransfers.size(); i++) {
+            int index = transferIndexes.get(i);
+            results[index] = new BatchTransferItemResult(index, true, mapToTransferResponse(savedTransfers.get(i)), null);
         }
         
-        if (!toCard.isActive()) {
-            throw new RuntimeException("Destination card is not active");
+        log.info("Batch transfer completed: {} of {} transfers applied for user {}",
+                savedTransfers.size(), requests.size(), ownerId);
+        
+        return new BatchTransferResponse(savedTransfers.size(), requests.size() - savedTransfers.size(),
+                List.of(results));
+    }
+    
+    /**
+     * With a journaling engine the database balances lag the acknowledged transfers, so a transfer
+     * checked against them could spend money the engine has already moved.
+     */
+    private void requireSynchronousTransfers() {
+        if (transferProperties.getEngine().journaled()) {
+            throw new SynchronousTransfersDisabledException(
+                    "Synchronous transfers are disabled while the transfer engine journals, use /api/transfers/async");
         }
+    }
+    
+    private TransferResponse transferWithRetry(TransferRequest request, Long ownerId, IdempotencyClaim claim) {
+        TransferProperties.Retry retry = transferProperties.getRetry();
         
-        // Check sufficient balance
-        if (fromCard.getBalance().compareTo(request.getAmount()) < 0) {
-            throw new RuntimeException("Insufficient balance");
+        for (int attempt = 1; ; attempt++) {
+            try {
+                // Every attempt runs in a fresh transaction so it re-reads the current balances and versions
+                TransferResponse response = transactionOperations.execute(status -> executeTransfer(request, ownerId, claim));
+                meterRegistry.summary("bank.transfers.optimistic.attempts").record(attempt);
+                return response;
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= retry.getMaxAttempts()) {
+                    meterRegistry.counter("bank.transfers.optimistic.exhausted").increment();
+                    log.warn("Transfer from card {} gave up after {} optimistic lock conflicts",
+                            request.getFromCardId(), attempt);
+                    throw new RuntimeException("Transfer failed: cards were modified concurrently, please retry");
+                }
+                meterRegistry.counter("bank.transfers.optimistic.retries").increment();
+                backOff(attempt, retry);
+            }
+        }
+    }
+    
+    private void backOff(int attempt, TransferProperties.Retry retry) {
+        // Full jitter: sleep a random time below an exponentially growing, capped bound
+        long bound = Math.min(retry.getMaxBackoff().toMillis(),
+                retry.getInitialBackoff().toMillis() << Math.min(attempt - 1, 16));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(bound + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Transfer interrupted");
+        }
+    }
+    
+    private TransferResponse executeTransfer(TransferRequest request, Long ownerId, IdempotencyClaim claim) {
+        // The key row goes in before any card is read; a replay returns here without locking them
+        if (claim != null) {
+            Optional<TransferResponse> replay = transferIdempotencyService.claim(claim);
+            if (replay.isPresent()) {
+                return replay.get();
+            }
         }
         
+        List<Long> cardIds = List.of(request.getFromCardId(), request.getToCardId());
+        
+        // Pessimistic mode locks both rows up front (in id order) so concurrent transfers queue on them;
+        // optimistic mode reads without locks and relies on Card.version being checked at commit
+        Map<Long, Card> cards = transferProperties.getLockingMode() == LockingMode.PESSIMISTIC
+                ? cardService.getCardsForUpdate(cardIds)
+                : cardService.getCards(cardIds);
+        
+        // Validate from and to cards exist and belong to user
+        Card fromCard = cards.get(request.getFromCardId());
+        Card toCard = cards.get(request.getToCardId());
+        
+        validateTransfer(fromCard, toCard, request.getAmount(), ownerId);
+        // Limits are checked against in-memory counters; a rollback gives the amount back
+        cardLimitService.reserve(fromCard, request.getAmount());
+        
         Transfer transfer = new Transfer();
         transfer.setFromCard(fromCard);
         transfer.setToCard(toCard);
@@ -66,8 +214,8 @@ public class TransferService {
         
         try {
             // Perform the transfer
-            fromCard.setBalance(fromCard.getBalance().subtract(request.getAmount()));
-            toCard.setBalance(toCard.getBalance().add(request.getAmount()));
+            fromCard.setBalance(fromCard.getBalance().minus(request.getAmount()));
+            toCard.setBalance(toCard.getBalance().plus(request.getAmount()));
             
             // Save updated cards
             cardService.updateCardBalance(fromCard);
@@ -75,12 +223,20 @@ public class TransferService {
             
             // Save transfer record
             Transfer savedTransfer = transferRepository.save(transfer);
+            cardBalanceSummaryService.transfersApplied(List.of(savedTransfer));
             
             log.info("Transfer completed: {} from card {} to card {}", 
                     request.getAmount(), fromCard.getId(), toCard.getId());
             
-            return mapToTransferResponse(savedTransfer);
-            
+            TransferResponse response = mapToTransferResponse(savedTransfer);
+            if (claim != null) {
+                transferIdempotencyService.complete(claim, response);
+            }
+            return response;
+        
+        } catch (OptimisticLockingFailureException e) {
+            // Let the retry loop see the conflict instead of recording a failed transfer
+            throw e;
         } catch (Exception e) {
             // Create failed transfer record
             transfer.setSuccessful(false);
@@ -92,27 +248,51 @@ public class TransferService {
     
     @Transactional(readOnly = true)
     public Page<TransferResponse> getTransfers(Long ownerId, int page, int size, Long cardId) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("transferDate").descending());
+        // History queries order by transfer date themselves, newest first
+        Pageable pageable = PageRequest.of(page, size);
         
-        Page<Transfer> transfers;
+        Page<TransferHistoryView> transfers;
         
         if (cardId != null) {
-            Card card = cardService.getCardById(cardId);
-            // Ensure user owns the card
-            if (!card.getOwner().getId().equals(ownerId)) {
-                throw new RuntimeException("Access denied");
-            }
-            transfers = transferRepository.findByCardAndOwner(cardId, ownerId, pageable);
+            checkCardAccess(cardId, ownerId);
+            transfers = transferRepository.findHistoryByCard(cardId, pageable);
         } else {
-            transfers = transferRepository.findByOwnerInvolvedCards(ownerId, pageable);
+            transfers = transferRepository.findHistoryByOwner(ownerId, pageable);
         }
         
         return transfers.map(this::mapToTransferResponse);
     }
     
+    @Transactional(readOnly = true)
+    public CursorPage<TransferResponse> getTransfersAfter(Long ownerId, String after, int size, Long cardId) {
+        KeysetCursor cursor = KeysetCursor.decode(after);
+        
+        List<TransferHistoryView> rows;
+        
+        if (cardId != null) {
+            checkCardAccess(cardId, ownerId);
+            rows = transferRepository.findHistoryByCardAfter(cardId, cursor.timestamp(), cursor.id(), size + 1);
+        } else {
+            rows = transferRepository.findHistoryByOwnerAfter(ownerId, cursor.timestamp(), cursor.id(), size + 1);
+        }
+        
+        List<TransferResponse> transfers = rows.stream().map(this::mapToTransferResponse).toList();
+        return CursorPage.of(transfers, size,
+                transfer -> new KeysetCursor(transfer.getTransferDate(), transfer.getId()));
+    }
+    
+    @Transactional(readOnly = true)
+    public void checkCardAccess(Long cardId, Long ownerId) {
+        Card card = cardService.getCardById(cardId);
+        // Ensure user owns the card
+        if (!card.getOwner().getId().equals(ownerId)) {
+            throw new RuntimeException("Access denied");
+        }
+    }
+    
     @Transactional(readOnly = true)
     public TransferResponse getTransferById(Long transferId, Long ownerId) {
-        Transfer transfer = transferRepository.findById(transferId)
+        Transfer transfer = transferRepository.findByIdWithCards(transferId)
                 .orElseThrow(() -> new RuntimeException("Transfer not found"));
         
         // Check if user is involved in this transfer
@@ -124,7 +304,37 @@ public class TransferService {
         return mapToTransferResponse(transfer);
     }
     
-    private TransferResponse mapToTransferResponse(Transfer transfer) {
+    static void validateTransfer(Card fromCard, Card toCard, Money amount, Long ownerId) {
+        // Security check - only allow transfers between user's own cards
+        if (!fromCard.getOwner().getId().equals(ownerId) || !toCard.getOwner().getId().equals(ownerId)) {
+            throw new RuntimeException("Access denied - can only transfer between own cards");
+        }
+        
+        // Basic validation
+        if (!amount.isPositive()) {
+            throw new RuntimeException("Transfer amount must be greater than 0");
+        }
+        
+        if (fromCard.getId().equals(toCard.getId())) {
+            throw new RuntimeException("Cannot transfer money to the same card");
+        }
+        
+        // Check if both cards are active
+        if (!fromCard.canTransfer()) {
+            throw new RuntimeException("Source card is not available for transfers");
+        }
+        
+        if (!toCard.isActive()) {
+            throw new RuntimeException("Destination card is not active");
+        }
+        
+        // Check sufficient balance
+        if (fromCard.getBalance().compareTo(amount) < 0) {
+            throw new RuntimeException("Insufficient balance");
+        }
+    }
+    
+    static TransferResponse mapToTransferResponse(Transfer transfer) {
         TransferResponse response = new TransferResponse();
         response.setId(transfer.getId());
         response.setFromCardId(transfer.getFromCard().getId());
@@ -137,4 +347,10 @@ public class TransferService {
         response.setSuccessful(transfer.isSuccessful());
         return response;
     }
+    
+    private TransferResponse mapToTransferResponse(TransferHistoryView view) {
+        return new TransferResponse(view.getId(), view.getFromCardId(), view.getFromCardNumber(),
+                view.getToCardId(), view.getToCardNumber(), Money.of(view.getAmount()), view.getDescription(),
+                view.getTransferDate(), Boolean.TRUE.equals(view.getSuccessful()));
+    }
 }
@@ -0,0 +1,157 @@
+package com.bank.bank_rest.service;
+
+import com.bank.bank_rest.config.TransferProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Rolls successful transfers up into transfer_daily_stats. Each run continues from the
+ * (transfer_date, id) watermark, reads new transfers in chunks along ix_transfers_date and
+ * applies every chunk as one batch of upserts, in the same transaction as the watermark move.
+ * The watermark row is locked for the chunk, so instances running the job at once take turns.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TransferStatsRollup {
+    
+    public static final String WATERMARK = "transfer_daily_stats";
+    
+    private static final LocalDateTime START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    
+    private static final String INSERT_WATERMARK =
+            "INSERT INTO rollup_watermarks (name, last_date, last_id, covered_until, updated_at) " +
+            "VALUES (?, ?, 0, ?, now()) ON CONFLICT (name) DO NOTHING";
+    
+    private static final String LOCK_WATERMARK =
+            "SELECT last_date, last_id FROM rollup_watermarks WHERE name = ? FOR UPDATE";
+    
+    private static final String MOVE_WATERMARK =
+            "UPDATE rollup_watermarks SET last_date = ?, last_id = ?, " +
+            "covered_until = GREATEST(covered_until, ?), updated_at = now() WHERE name = ?";
+    
+    private static final String NEW_TRANSFERS =
+            "SELECT t.id, t.transfer_date, t.amount, t.from_card_id, fc.owner_id AS from_owner_id, " +
+            "       t.to_card_id, tc.owner_id AS to_owner_id " +
+            "FROM transfers t " +
+            "JOIN cards fc ON fc.id = t.from_card_id " +
+            "JOIN cards tc ON tc.id = t.to_card_id " +
+            "WHERE (t.transfer_date, t.id) > (?, ?) AND t.transfer_date < ? AND t.successful = true " +
+            "ORDER BY t.transfer_date, t.id LIMIT ?";
+    
+    private static final String UPSERT_DAY =
+            "INSERT INTO transfer_daily_stats (card_id, stat_date, owner_id, outgoing_count, outgoing_amount, " +
+            "                                  incoming_count, incoming_amount, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, now()) " +
+            "ON CONFLICT (card_id, stat_date) DO UPDATE SET " +
+            "outgoing_count = transfer_daily_stats.outgoing_count + EXCLUDED.outgoing_count, " +
+            "outgoing_amount = transfer_daily_stats.outgoing_amount + EXCLUDED.outgoing_amount, " +
+            "incoming_count = transfer_daily_stats.incoming_count + EXCLUDED.incoming_count, " +
+            "incoming_amount = transfer_daily_stats.incoming_amount + EXCLUDED.incoming_amount, " +
+            "updated_at = now()";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionOperations transactionOperations;
+    private final TransferProperties transferProperties;
+    private final TransferJournalFlusher transferJournalFlusher;
+    
+    @Scheduled(fixedDelayString = "${bank.transfer.stats.interval:PT1M}")
+    public void refresh() {
+        TransferProperties.Stats stats = transferProperties.getStats();
+        // Journaled transfers reach the table late but keep their date; the watermark must not pass them
+        Optional<LocalDateTime> flushed = transferJournalFlusher.flushedBefore(LocalDateTime.now().minus(stats.getLag()));
+        if (flushed.isEmpty()) {
+            log.debug("Transfer journal not replayed yet, skipping the stats rollup");
+            return;
+        }
+        LocalDateTime upTo = flushed.get();
+        
+        jdbcTemplate.update(INSERT_WATERMARK, WATERMARK, START, START);
+        
+        long total = 0;
+        int applied;
+        do {
+            applied = transactionOperations.execute(status -> applyChunk(upTo, stats.getChunkSize()));
+            total += applied;
+        } while (applied == stats.getChunkSize());
+        
+        if (total > 0) {
+            log.info("Rolled up {} transfers into daily stats up to {}", total, upTo);
+        }
+    }
+    
+    private int applyChunk(LocalDateTime upTo, int chunkSize) {
+        Position watermark = jdbcTemplate.queryForObject(LOCK_WATERMARK,
+                (rs, rowNum) -> new Position(rs.getTimestamp("last_date").toLocalDateTime(), rs.getLong("last_id")),
+                WATERMARK);
+        
+        Map<DayKey, DayTotals> days = new HashMap<>();
+        Position[] last = {watermark};
+        int[] rows = {0};
+        
+        jdbcTemplate.query(NEW_TRANSFERS, rs -> {
+            LocalDateTime transferDate = rs.getTimestamp("transfer_date").toLocalDateTime();
+            LocalDate day = transferDate.toLocalDate();
+            BigDecimal amount = rs.getBigDecimal("amount");
+            long fromOwnerId = rs.getLong("from_owner_id");
+            long toOwnerId = rs.getLong("to_owner_id");
+            
+            DayTotals outgoing = days.computeIfAbsent(new DayKey(rs.getLong("from_card_id"), day),
+                    key -> new DayTotals(fromOwnerId));
+            outgoing.outgoingCount++;
+            outgoing.outgoingAmount = outgoing.outgoingAmount.add(amount);
+            
+            DayTotals incoming = days.computeIfAbsent(new DayKey(rs.getLong("to_card_id"), day),
+                    key -> new DayTotals(toOwnerId));
+            incoming.incomingCount++;
+            incoming.incomingAmount = incoming.incomingAmount.add(amount);
+            
+            last[0] = new Position(transferDate, rs.getLong("id"));
+            rows[0]++;
+        }, watermark.date(), watermark.id(), upTo, chunkSize);
+        
+        if (!days.isEmpty()) {
+            List<Object[]> upserts = new ArrayList<>(days.size());
+            days.forEach((key, totals) -> upserts.add(new Object[]{
+                    key.cardId(), key.day(), totals.ownerId,
+                    totals.outgoingCount, totals.outgoingAmount, totals.incomingCount, totals.incomingAmount}));
+            jdbcTemplate.batchUpdate(UPSERT_DAY, upserts);
+        }
+        
+        // Only a short chunk proves nothing older than upTo is left
+        LocalDateTime coveredUntil = rows[0] < chunkSize ? upTo : START;
+        jdbcTemplate.update(MOVE_WATERMARK, last[0].date(), last[0].id(), coveredUntil, WATERMARK);
+        return rows[0];
+    }
+    
+    private record Position(LocalDateTime date, long id) {
+    }
+    
+    private record DayKey(long cardId, LocalDate day) {
+    }
+    
+    private static class DayTotals {
+        private final long ownerId;
+        private long outgoingCount;
+        private BigDecimal outgoingAmount = BigDecimal.ZERO;
+        private long incomingCount;
+        private BigDecimal incomingAmount = BigDecimal.ZERO;
+        
+        DayTotals(long ownerId) {
+            this.ownerId = ownerId;
+        }
+    }
+}
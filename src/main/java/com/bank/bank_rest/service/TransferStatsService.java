@@ -0,0 +1,58 @@
+package com.bank.bank_rest.service;
+
+import com.bank.bank_rest.config.TransferProperties;
+import com.bank.bank_rest.dto.transfer.TransferDailyStatsResponse;
+import com.bank.bank_rest.dto.transfer.TransferStatsResponse;
+import com.bank.bank_rest.model.RollupWatermark;
+import com.bank.bank_rest.repository.RollupWatermarkRepository;
+import com.bank.bank_rest.repository.TransferDailyStatsRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Daily transfer stats read from the rollup tables only; see TransferStatsRollup for how they are filled.
+ */
+@Service
+@RequiredArgsConstructor
+public class TransferStatsService {
+    
+    private final TransferDailyStatsRepository statsRepository;
+    private final RollupWatermarkRepository watermarkRepository;
+    private final TransferService transferService;
+    private final TransferProperties transferProperties;
+    
+    @Transactional(readOnly = true)
+    public TransferStatsResponse getStats(Long ownerId, Long cardId, LocalDate from, LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        
+        if (start.isAfter(end)) {
+            throw new RuntimeException("'from' must not be after 'to'");
+        }
+        int maxDays = transferProperties.getStats().getMaxDays();
+        if (ChronoUnit.DAYS.between(start, end) >= maxDays) {
+            throw new RuntimeException("Stats range cannot exceed " + maxDays + " days");
+        }
+        
+        List<TransferDailyStatsResponse> days;
+        
+        if (cardId != null) {
+            transferService.checkCardAccess(cardId, ownerId);
+            days = statsRepository.findCardDays(cardId, start, end);
+        } else {
+            days = statsRepository.findOwnerDays(ownerId, start, end);
+        }
+        
+        LocalDateTime countedUpTo = watermarkRepository.findById(TransferStatsRollup.WATERMARK)
+                .map(RollupWatermark::getCoveredUntil)
+                .orElse(null);
+        
+        return new TransferStatsResponse(cardId, start, end, countedUpTo, days);
+    }
+}
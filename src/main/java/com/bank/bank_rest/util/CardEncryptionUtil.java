@@ -4,41 +4,111 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.Cipher;
+import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.MessageDigest;
 import java.util.Base64;
+import java.util.HexFormat;
 
 @Component
 public class CardEncryptionUtil {
     
+    private static final String TRANSFORMATION = "AES/ECB/PKCS5Padding";
+    private static final String BLIND_INDEX_ALGORITHM = "HmacSHA256";
+    private static final int POOL_SIZE = Runtime.getRuntime().availableProcessors() * 2;
+    
     private final SecretKeySpec secretKey;
+    // Ciphers stay initialized between uses: doFinal resets them to the state after init
+    private final ResourcePool<Cipher> encryptCiphers;
+    private final ResourcePool<Cipher> decryptCiphers;
+    private final SecretKeySpec blindIndexKey;
+    private final ResourcePool<Mac> blindIndexMacs;
     
-    public CardEncryptionUtil(@Value("${jwt.secret}") String secret) throws Exception {
+    public CardEncryptionUtil(@Value("${jwt.secret}") String secret,
+                              @Value("${bank.card.blind-index.secret:${jwt.secret}}") String blindIndexSecret) throws Exception {
         MessageDigest sha = MessageDigest.getInstance("SHA-256");
         byte[] key = sha.digest(secret.getBytes());
         this.secretKey = new SecretKeySpec(key, "AES");
+        this.encryptCiphers = new ResourcePool<>(POOL_SIZE, () -> newCipher(Cipher.ENCRYPT_MODE));
+        this.decryptCiphers = new ResourcePool<>(POOL_SIZE, () -> newCipher(Cipher.DECRYPT_MODE));
+        
+        // Separate key from the encryption key, even when both are derived from the same secret
+        byte[] indexKey = MessageDigest.getInstance("SHA-256")
+                .digest(("card-number-blind-index:" + blindIndexSecret).getBytes(StandardCharsets.UTF_8));
+        this.blindIndexKey = new SecretKeySpec(indexKey, BLIND_INDEX_ALGORITHM);
+        this.blindIndexMacs = new ResourcePool<>(POOL_SIZE, this::newMac);
     }
     
     public String encryptCardNumber(String cardNumber) {
+        byte[] encryptedBytes = encrypt(cardNumber.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(encryptedBytes);
+    }
+    
+    public String decryptCardNumber(String encryptedCardNumber) {
+        byte[] decodedBytes;
         try {
-            Cipher cipher = Cipher.getInstance("AES/ECB/PKCS5Padding");
-            cipher.init(Cipher.ENCRYPT_MODE, secretKey);
-            byte[] encryptedBytes = cipher.doFinal(cardNumber.getBytes());
-            return Base64.getEncoder().encodeToString(encryptedBytes);
-        } catch (Exception e) {
-            throw new RuntimeException("Error encrypting card number", e);
+            decodedBytes = Base64.getDecoder().decode(encryptedCardNumber);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Error decrypting card number", e);
         }
+        return new String(decrypt(decodedBytes), StandardCharsets.UTF_8);
     }
     
-    public String decryptCardNumber(String encryptedCardNumber) {
+    /**
+     * Byte-level variant of {@link #encryptCardNumber(String)} for bulk callers that already hold
+     * the number as bytes and store or compare raw ciphertext.
+     */
+    public byte[] encrypt(byte[] cardNumber) {
+        return doFinal(encryptCiphers, cardNumber, "Error encrypting card number");
+    }
+    
+    public byte[] decrypt(byte[] encryptedCardNumber) {
+        return doFinal(decryptCiphers, encryptedCardNumber, "Error decrypting card number");
+    }
+    
+    /**
+     * Keyed hash ("blind index") of a card number: 64 hex characters, identical for identical
+     * numbers whatever the encryption mode, so it can back the unique index and lookups.
+     */
+    public String hashCardNumber(String cardNumber) {
+        Mac mac = blindIndexMacs.borrow();
+        byte[] hash = mac.doFinal(cardNumber.getBytes(StandardCharsets.UTF_8));
+        blindIndexMacs.release(mac);
+        return HexFormat.of().formatHex(hash);
+    }
+    
+    private byte[] doFinal(ResourcePool<Cipher> pool, byte[] input, String errorMessage) {
+        Cipher cipher = pool.borrow();
+        byte[] output;
         try {
-            Cipher cipher = Cipher.getInstance("AES/ECB/PKCS5Padding");
-            cipher.init(Cipher.DECRYPT_MODE, secretKey);
-            byte[] decodedBytes = Base64.getDecoder().decode(encryptedCardNumber);
-            byte[] decryptedBytes = cipher.doFinal(decodedBytes);
-            return new String(decryptedBytes);
+            output = cipher.doFinal(input);
         } catch (Exception e) {
-            throw new RuntimeException("Error decrypting card number", e);
+            // A cipher that failed mid-operation is not returned to the pool
+            throw new RuntimeException(errorMessage, e);
+        }
+        pool.release(cipher);
+        return output;
+    }
+    
+    private Cipher newCipher(int mode) {
+        try {
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(mode, secretKey);
+            return cipher;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialize " + TRANSFORMATION + " cipher", e);
+        }
+    }
+    
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(BLIND_INDEX_ALGORITHM);
+            mac.init(blindIndexKey);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialize " + BLIND_INDEX_ALGORITHM, e);
         }
     }
     
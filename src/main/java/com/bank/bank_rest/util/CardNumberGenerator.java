@@ -1,29 +1,75 @@
 package com.bank.bank_rest.util;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.util.Random;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Component
 public class CardNumberGenerator {
     
-    private static final Random RANDOM = new Random();
+    private static final int CARD_NUMBER_LENGTH = 16;
+    
+    private final char[] bin;
+    
+    public CardNumberGenerator(@Value("${bank.card.bin:400000}") String bin) {
+        if (bin.isEmpty() || bin.length() >= CARD_NUMBER_LENGTH || !isDigits(bin)) {
+            throw new IllegalArgumentException("Card BIN must be 1-15 digits: " + bin);
+        }
+        this.bin = bin.toCharArray();
+    }
     
     public String generateCardNumber() {
-        // Simple card number generator (for demo purposes)
-        // In real system, would need more sophisticated algorithm
-        StringBuilder sb = new StringBuilder();
+        char[] digits = new char[CARD_NUMBER_LENGTH];
+        fill(digits, ThreadLocalRandom.current());
+        return new String(digits);
+    }
+    
+    /**
+     * Generates {@code count} distinct numbers for batch issuance. Uniqueness is only
+     * within the batch; collisions with stored cards are still caught by the blind index.
+     */
+    public List<String> generateUniqueCardNumbers(int count) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        char[] digits = new char[CARD_NUMBER_LENGTH];
+        Set<String> seen = new HashSet<>(count * 2);
+        List<String> numbers = new ArrayList<>(count);
         
-        // Generate 16-digit card number
-        for (int i = 0; i < 16; i++) {
-            sb.append(RANDOM.nextInt(10));
+        while (numbers.size() < count) {
+            fill(digits, random);
+            String number = new String(digits);
+            if (seen.add(number)) {
+                numbers.add(number);
+            }
+        }
+        return numbers;
+    }
+    
+    /**
+     * Writes the BIN, random account digits and the Luhn check digit into {@code digits}.
+     */
+    private void fill(char[] digits, ThreadLocalRandom random) {
+        System.arraycopy(bin, 0, digits, 0, bin.length);
+        for (int i = bin.length; i < CARD_NUMBER_LENGTH - 1; i++) {
+            digits[i] = (char) ('0' + random.nextInt(10));
         }
         
-        return sb.toString();
+        // Luhn over the payload: doubling starts next to the check digit
+        int sum = 0;
+        boolean alternate = true;
+        for (int i = CARD_NUMBER_LENGTH - 2; i >= 0; i--) {
+            sum += luhnDigit(digits[i] - '0', alternate);
+            alternate = !alternate;
+        }
+        digits[CARD_NUMBER_LENGTH - 1] = (char) ('0' + (10 - sum % 10) % 10);
     }
     
-    public boolean isValidCardNumber(String cardNumber) {
-        if (cardNumber == null || cardNumber.length() != 16) {
+    public boolean isValidCardNumber(CharSequence cardNumber) {
+        if (cardNumber == null || cardNumber.length() != CARD_NUMBER_LENGTH) {
             return false;
         }
         
@@ -32,19 +78,33 @@ public class CardNumberGenerator {
         boolean alternate = false;
         
         for (int i = cardNumber.length() - 1; i >= 0; i--) {
-            int digit = Character.getNumericValue(cardNumber.charAt(i));
-            
-            if (alternate) {
-                digit *= 2;
-                if (digit > 9) {
-                    digit = (digit % 10) + 1;
-                }
+            int digit = cardNumber.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return false;
             }
             
-            sum += digit;
+            sum += luhnDigit(digit, alternate);
             alternate = !alternate;
         }
         
         return (sum % 10) == 0;
     }
+    
+    private static int luhnDigit(int digit, boolean doubled) {
+        if (!doubled) {
+            return digit;
+        }
+        digit *= 2;
+        return digit > 9 ? digit - 9 : digit;
+    }
+    
+    private static boolean isDigits(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
 }
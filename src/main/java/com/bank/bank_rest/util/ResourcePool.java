@@ -0,0 +1,30 @@
+package com.bank.bank_rest.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * Small bounded pool for expensive, non-thread-safe JCA objects (Cipher, Mac).
+ * Borrowing never blocks: an empty pool creates a new instance, and a full pool lets the
+ * returned one be garbage collected. Unlike a ThreadLocal this stays effective with
+ * short-lived virtual threads, and the queue's lock does not pin carrier threads.
+ */
+class ResourcePool<T> {
+    
+    private final ArrayBlockingQueue<T> idle;
+    private final Supplier<T> factory;
+    
+    ResourcePool(int capacity, Supplier<T> factory) {
+        this.idle = new ArrayBlockingQueue<>(capacity);
+        this.factory = factory;
+    }
+    
+    T borrow() {
+        T resource = idle.poll();
+        return resource != null ? resource : factory.get();
+    }
+    
+    void release(T resource) {
+        idle.offer(resource);
+    }
+}
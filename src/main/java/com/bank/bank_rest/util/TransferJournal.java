@@ -0,0 +1,348 @@
+package com.bank.bank_rest.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only transfer journal in a memory-mapped file. Records have a fixed size and live in a ring
+ * of slots after a one-page header: record {@code seq} goes to slot {@code (seq - 1) % capacity}.
+ * The header holds the checkpoint, the last sequence number known to be in the database; slots past
+ * it are never overwritten, so an append waits while the ring is full.
+ *
+ * On open, records are read from the checkpoint on for as long as each slot holds the expected
+ * sequence number and a matching CRC. A torn or stale slot ends the journal there; anything after
+ * it was never acknowledged, because {@link #append} returns only after the whole batch is forced.
+ */
+public class TransferJournal implements AutoCloseable {
+    
+    public static final int DESCRIPTION_BYTES = 1020;
+    
+    private static final int MAGIC = 0x544A524E;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 4096;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int CHECKPOINT_OFFSET = 16;
+    
+    // seq, transfer id, from card, to card, amount in minor units, transfer date, description, CRC32C
+    private static final int DESCRIPTION_OFFSET = 50;
+    private static final int CRC_OFFSET = DESCRIPTION_OFFSET + DESCRIPTION_BYTES;
+    private static final int RECORD_SIZE = 1088;
+    
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final Condition flushed = lock.newCondition();
+    private long lastSeq;
+    private long checkpointSeq;
+    
+    private TransferJournal(FileChannel channel, MappedByteBuffer buffer, int capacity) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.capacity = capacity;
+    }
+    
+    /**
+     * Opens the journal at the path, creating it with room for {@code capacity} records if it does not exist.
+     */
+    public static TransferJournal open(Path path, int capacity) {
+        if (capacity < 1 || capacity > (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE) {
+            throw new IllegalArgumentException("Journal capacity must be between 1 and "
+                    + (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE + " records");
+        }
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            boolean created = !Files.exists(path);
+            FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    HEADER_SIZE + (long) capacity * RECORD_SIZE);
+            TransferJournal journal = new TransferJournal(channel, buffer, capacity);
+            if (created) {
+                journal.writeHeader();
+            } else {
+                journal.recover(path);
+            }
+            return journal;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open transfer journal " + path, e);
+        }
+    }
+    
+    public static boolean fits(String description) {
+        return description == null || description.getBytes(StandardCharsets.UTF_8).length <= DESCRIPTION_BYTES;
+    }
+    
+    /**
+     * Writes the records, forces them to disk and returns them with their sequence numbers.
+     * Waits up to {@code timeout} for the flusher while the ring is full.
+     */
+    public List<Entry> append(List<Entry> entries, Duration timeout) {
+        lock.lock();
+        try {
+            long deadline = System.nanoTime() + timeout.toNanos();
+            while (lastSeq + entries.size() - checkpointSeq > capacity) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new IllegalStateException("Transfer journal is full");
+                }
+                flushed.awaitNanos(remaining);
+            }
+            
+            // Checked before anything is written, so a rejected batch leaves no valid-looking slot behind
+            for (Entry entry : entries) {
+                if (!fits(entry.description())) {
+                    throw new IllegalArgumentException("Description is too long for the journal");
+                }
+            }
+            
+            List<Entry> written = new ArrayList<>(entries.size());
+            for (Entry entry : entries) {
+                Entry numbered = entry.withSeq(lastSeq + written.size() + 1);
+                write(numbered);
+                written.add(numbered);
+            }
+            
+            try {
+                force(lastSeq + 1, written.size());
+            } catch (UncheckedIOException e) {
+                // The pages may still reach the disk; clear the numbers so recovery does not replay them
+                written.forEach(entry -> buffer.putLong(offset(entry.seq()), 0));
+                throw e;
+            }
+            
+            lastSeq += written.size();
+            appended.signalAll();
+            return written;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for journal space");
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Up to {@code max} records past the checkpoint, in sequence order.
+     */
+    public List<Entry> readUnflushed(int max) {
+        long from;
+        long to;
+        lock.lock();
+        try {
+            from = checkpointSeq + 1;
+            to = Math.min(lastSeq, checkpointSeq + max);
+        } finally {
+            lock.unlock();
+        }
+        
+        // Slots past the checkpoint are not rewritten until it moves, so they can be read without the lock
+        List<Entry> entries = new ArrayList<>();
+        for (long seq = from; seq <= to; seq++) {
+            entries.add(read(seq));
+        }
+        return entries;
+    }
+    
+    /**
+     * Earliest transfer date among the records past the checkpoint, or null when everything is flushed.
+     * Shards stamp their batches before taking the lock, so dates are not strictly in sequence order.
+     */
+    public LocalDateTime oldestUnflushedDate() {
+        long from;
+        long to;
+        lock.lock();
+        try {
+            from = checkpointSeq + 1;
+            to = lastSeq;
+        } finally {
+            lock.unlock();
+        }
+        
+        long oldest = Long.MAX_VALUE;
+        for (long seq = from; seq <= to; seq++) {
+            oldest = Math.min(oldest, buffer.getLong(offset(seq) + 40));
+        }
+        return oldest != Long.MAX_VALUE ? fromMicros(oldest) : null;
+    }
+    
+    /**
+     * Records that every entry up to {@code seq} is in the database, freeing their slots.
+     */
+    public void checkpoint(long seq) {
+        buffer.putLong(CHECKPOINT_OFFSET, seq);
+        buffer.force(0, HEADER_SIZE);
+        lock.lock();
+        try {
+            checkpointSeq = seq;
+            flushed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Waits until something is appended past the checkpoint, or the timeout passes.
+     */
+    public void awaitUnflushed(Duration timeout) throws InterruptedException {
+        lock.lock();
+        try {
+            if (lastSeq == checkpointSeq) {
+                appended.await(timeout.toNanos(), TimeUnit.NANOSECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Waits until everything appended so far is in the database. Returns false on timeout.
+     */
+    public boolean awaitFlushed(Duration timeout) throws InterruptedException {
+        lock.lock();
+        try {
+            long target = lastSeq;
+            long remaining = timeout.toNanos();
+            while (checkpointSeq < target) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = flushed.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public void close() {
+        try {
+            buffer.force();
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to close transfer journal", e);
+        }
+    }
+    
+    private void writeHeader() {
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, FORMAT_VERSION);
+        buffer.putInt(CAPACITY_OFFSET, capacity);
+        buffer.putInt(CAPACITY_OFFSET + 4, RECORD_SIZE);
+        buffer.putLong(CHECKPOINT_OFFSET, 0);
+        buffer.force(0, HEADER_SIZE);
+    }
+    
+    private void recover(Path path) {
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION
+                || buffer.getInt(CAPACITY_OFFSET + 4) != RECORD_SIZE) {
+            throw new IllegalStateException(path + " is not a transfer journal of this version");
+        }
+        if (buffer.getInt(CAPACITY_OFFSET) != capacity) {
+            throw new IllegalStateException(path + " was created for " + buffer.getInt(CAPACITY_OFFSET)
+                    + " records; flush it with that capacity before changing it");
+        }
+        
+        checkpointSeq = buffer.getLong(CHECKPOINT_OFFSET);
+        lastSeq = checkpointSeq;
+        while (lastSeq - checkpointSeq < capacity && isValid(lastSeq + 1)) {
+            lastSeq++;
+        }
+    }
+    
+    private void write(Entry entry) {
+        int offset = offset(entry.seq());
+        byte[] description = entry.description() != null
+                ? entry.description().getBytes(StandardCharsets.UTF_8) : new byte[0];
+        
+        buffer.putLong(offset, entry.seq());
+        buffer.putLong(offset + 8, entry.transferId());
+        buffer.putLong(offset + 16, entry.fromCardId());
+        buffer.putLong(offset + 24, entry.toCardId());
+        buffer.putLong(offset + 32, entry.amountMinor());
+        buffer.putLong(offset + 40, toMicros(entry.transferDate()));
+        // -1 marks a missing description, as opposed to an empty one
+        buffer.putShort(offset + 48, entry.description() != null ? (short) description.length : -1);
+        buffer.put(offset + DESCRIPTION_OFFSET, description);
+        buffer.putInt(offset + CRC_OFFSET, crc(offset));
+    }
+    
+    private Entry read(long seq) {
+        int offset = offset(seq);
+        short descriptionLength = buffer.getShort(offset + 48);
+        String description = null;
+        if (descriptionLength >= 0) {
+            byte[] bytes = new byte[descriptionLength];
+            buffer.get(offset + DESCRIPTION_OFFSET, bytes);
+            description = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return new Entry(seq, buffer.getLong(offset + 8), buffer.getLong(offset + 16), buffer.getLong(offset + 24),
+                buffer.getLong(offset + 32), fromMicros(buffer.getLong(offset + 40)), description);
+    }
+    
+    private boolean isValid(long seq) {
+        int offset = offset(seq);
+        return buffer.getLong(offset) == seq && buffer.getInt(offset + CRC_OFFSET) == crc(offset);
+    }
+    
+    private int crc(int offset) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, CRC_OFFSET));
+        return (int) crc.getValue();
+    }
+    
+    private void force(long firstSeq, int count) {
+        int firstSlot = (int) ((firstSeq - 1) % capacity);
+        int inFirstPass = Math.min(count, capacity - firstSlot);
+        buffer.force(HEADER_SIZE + firstSlot * RECORD_SIZE, inFirstPass * RECORD_SIZE);
+        // A batch that wraps around the end of the ring continues at the first slot
+        if (inFirstPass < count) {
+            buffer.force(HEADER_SIZE, (count - inFirstPass) * RECORD_SIZE);
+        }
+    }
+    
+    private int offset(long seq) {
+        return HEADER_SIZE + (int) ((seq - 1) % capacity) * RECORD_SIZE;
+    }
+    
+    private static long toMicros(LocalDateTime dateTime) {
+        // Transfer dates are local; UTC is only a fixed reference point so they read back unchanged
+        return ChronoUnit.MICROS.between(LocalDateTime.of(1970, 1, 1, 0, 0), dateTime);
+    }
+    
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1000, ZoneOffset.UTC);
+    }
+    
+    /**
+     * One journaled transfer. The amount is in minor units (cents), matching the NUMERIC(15,2) columns.
+     */
+    public record Entry(long seq, long transferId, long fromCardId, long toCardId, long amountMinor,
+                        LocalDateTime transferDate, String description) {
+        
+        Entry withSeq(long seq) {
+            return new Entry(seq, transferId, fromCardId, toCardId, amountMinor, transferDate, description);
+        }
+    }
+}
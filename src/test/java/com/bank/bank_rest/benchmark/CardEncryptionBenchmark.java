@@ -0,0 +1,78 @@
+package com.bank.bank_rest.benchmark;
+
+import com.bank.bank_rest.util.CardEncryptionUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Card number encryption round trip: the previous per-call {@code Cipher.getInstance} code
+ * against the pooled {@link CardEncryptionUtil} String and byte[] APIs.
+ * Add {@code -prof gc} to the JMH command line to see allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class CardEncryptionBenchmark {
+
+    private static final String SECRET = "BenchmarkEncryptionSecret";
+    private static final String CARD_NUMBER = "4000001234567899";
+
+    private CardEncryptionUtil cardEncryptionUtil;
+    private SecretKeySpec secretKey;
+    private byte[] cardNumberBytes;
+
+    @Setup
+    public void setUp() throws Exception {
+        cardEncryptionUtil = new CardEncryptionUtil(SECRET, SECRET);
+        secretKey = new SecretKeySpec(MessageDigest.getInstance("SHA-256").digest(SECRET.getBytes()), "AES");
+        cardNumberBytes = CARD_NUMBER.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public String legacyRoundTrip() throws Exception {
+        Cipher encrypt = Cipher.getInstance("AES/ECB/PKCS5Padding");
+        encrypt.init(Cipher.ENCRYPT_MODE, secretKey);
+        String encrypted = Base64.getEncoder().encodeToString(encrypt.doFinal(CARD_NUMBER.getBytes()));
+
+        Cipher decrypt = Cipher.getInstance("AES/ECB/PKCS5Padding");
+        decrypt.init(Cipher.DECRYPT_MODE, secretKey);
+        return new String(decrypt.doFinal(Base64.getDecoder().decode(encrypted)));
+    }
+
+    @Benchmark
+    public String pooledStringRoundTrip() {
+        return cardEncryptionUtil.decryptCardNumber(cardEncryptionUtil.encryptCardNumber(CARD_NUMBER));
+    }
+
+    @Benchmark
+    public byte[] pooledBytesRoundTrip() {
+        return cardEncryptionUtil.decrypt(cardEncryptionUtil.encrypt(cardNumberBytes));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CardEncryptionBenchmark.class.getSimpleName()).build()).run();
+    }
+}
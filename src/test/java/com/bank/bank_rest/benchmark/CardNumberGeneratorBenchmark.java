@@ -0,0 +1,94 @@
+package com.bank.bank_rest.benchmark;
+
+import com.bank.bank_rest.util.CardNumberGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Card number generation and Luhn validation: the previous shared-{@link Random} generator and
+ * {@code Character.getNumericValue} validator against {@link CardNumberGenerator}.
+ * Add {@code -prof gc} to the JMH command line to see allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class CardNumberGeneratorBenchmark {
+
+    private static final Random RANDOM = new Random();
+    private static final String CARD_NUMBER = "4000001234567899";
+
+    private CardNumberGenerator cardNumberGenerator;
+
+    @Setup
+    public void setUp() {
+        cardNumberGenerator = new CardNumberGenerator("400000");
+    }
+
+    @Benchmark
+    public String legacyGenerate() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 16; i++) {
+            sb.append(RANDOM.nextInt(10));
+        }
+        return sb.toString();
+    }
+
+    @Benchmark
+    public String generate() {
+        return cardNumberGenerator.generateCardNumber();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1000)
+    public List<String> generateUniqueBatch() {
+        return cardNumberGenerator.generateUniqueCardNumbers(1000);
+    }
+
+    @Benchmark
+    public boolean legacyValidate() {
+        int sum = 0;
+        boolean alternate = false;
+        for (int i = CARD_NUMBER.length() - 1; i >= 0; i--) {
+            int digit = Character.getNumericValue(CARD_NUMBER.charAt(i));
+            if (alternate) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit = (digit % 10) + 1;
+                }
+            }
+            sum += digit;
+            alternate = !alternate;
+        }
+        return (sum % 10) == 0;
+    }
+
+    @Benchmark
+    public boolean validate() {
+        return cardNumberGenerator.isValidCardNumber(CARD_NUMBER);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CardNumberGeneratorBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,93 @@
+package com.bank.bank_rest.benchmark;
+
+import com.bank.bank_rest.integration.AbstractPostgresIntegrationTest;
+import com.bank.bank_rest.repository.CardRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Compares card search by the old {@code masked_number LIKE '%1234%'} filter with the indexed
+ * last4 lookup, for owners holding many cards. The table size defaults to ten million cards;
+ * override with -Dbenchmark.search.cards. Run with {@code ./mvnw test -Pbenchmark}.
+ */
+@Slf4j
+@Tag("benchmark")
+class CardSearchBenchmarkTest extends AbstractPostgresIntegrationTest {
+
+    private static final int OWNERS = 1_000;
+    private static final int SEARCHES = 200;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Test
+    void compareLikeSearchWithLast4Lookup() {
+        int cards = Integer.getInteger("benchmark.search.cards", 10_000_000);
+        List<Long> ownerIds = seed(cards);
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("createdAt").descending());
+
+        long like = 0;
+        long last4 = 0;
+        for (int i = 0; i < SEARCHES; i++) {
+            Long ownerId = ownerIds.get(ThreadLocalRandom.current().nextInt(ownerIds.size()));
+            String digits = String.format("%04d", ThreadLocalRandom.current().nextInt(10_000));
+
+            long startedAt = System.nanoTime();
+            jdbcTemplate.queryForList("""
+                    SELECT c.id FROM cards c
+                    WHERE c.owner_id = ? AND c.masked_number LIKE '%' || ? || '%'
+                    ORDER BY c.created_at DESC LIMIT 10
+                    """, Long.class, ownerId, digits);
+            jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM cards c WHERE c.owner_id = ? AND c.masked_number LIKE '%' || ? || '%'",
+                    Long.class, ownerId, digits);
+            like += System.nanoTime() - startedAt;
+
+            startedAt = System.nanoTime();
+            cardRepository.findResponsesByOwnerWithFilters(ownerId, null, digits, null, pageable);
+            last4 += System.nanoTime() - startedAt;
+        }
+
+        log.info("Card search over {} cards ({} per owner), avg ms: LIKE '%...%' -> {}, last4 index -> {}",
+                cards, cards / OWNERS, like / SEARCHES / 1_000_000.0, last4 / SEARCHES / 1_000_000.0);
+    }
+
+    private List<Long> seed(int cards) {
+        String prefix = "search-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+
+        jdbcTemplate.update("""
+                INSERT INTO users (id, username, password, first_name, last_name, email, role, created_at, enabled)
+                SELECT nextval('users_id_seq'), ? || g, 'not-used', 'Search', 'Bench', ? || g || '@bank.com',
+                       'USER', now(), true
+                FROM generate_series(1, ?) g
+                """, prefix, prefix, OWNERS);
+
+        jdbcTemplate.update("""
+                INSERT INTO cards (id, encrypted_number, masked_number, last4, owner_id, card_holder_name,
+                                   expiry_date, status, balance, created_at, version)
+                SELECT nextval('cards_id_seq'), ? || g, '**** **** **** ' || d.last4, d.last4,
+                       o.ids[1 + g % ?], 'Search Bench', current_date + 365, 'ACTIVE', 0,
+                       now() - g * interval '1 second', 0
+                FROM generate_series(1, ?) g
+                CROSS JOIN LATERAL (SELECT lpad(((hashint4(g)::bigint & 2147483647) % 10000)::text, 4, '0') AS last4) d
+                CROSS JOIN (SELECT array_agg(id ORDER BY id) AS ids FROM users WHERE username LIKE ? || '%') o
+                """, prefix, OWNERS, cards, prefix);
+
+        jdbcTemplate.execute("ANALYZE cards");
+
+        return jdbcTemplate.queryForList("SELECT id FROM users WHERE username LIKE ? || '%'", Long.class, prefix);
+    }
+}
@@ -0,0 +1,84 @@
+package com.bank.bank_rest.benchmark;
+
+import com.bank.bank_rest.security.JwtTokenProvider;
+import com.bank.bank_rest.security.VerifiedTokenCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.userdetails.User;
+
+import javax.crypto.SecretKey;
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request JWT cost: the old validate + expiry check + subject lookup (three parser builds and
+ * three signature checks) against the single-pass {@link JwtTokenProvider#parseValidClaims(String)}
+ * and a {@link VerifiedTokenCache} hit.
+ * Run via {@link #main} or {@code java -cp <test classpath> org.openjdk.jmh.Main JwtAuthBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthBenchmark {
+
+    private static final String SECRET = "BenchmarkJwtSecretKeyThatIsLongEnoughForHs512SignaturesToBeAccepted0123";
+
+    private JwtTokenProvider jwtTokenProvider;
+    private VerifiedTokenCache verifiedTokenCache;
+    private SecretKey secretKey;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtTokenProvider = new JwtTokenProvider(SECRET, 3_600_000L);
+        secretKey = Keys.hmacShaKeyFor(SECRET.getBytes());
+        token = jwtTokenProvider.generateToken(User.withUsername("bench").password("unused").authorities("USER").build());
+        verifiedTokenCache = new VerifiedTokenCache(true, 1_000, Duration.ofMinutes(1), new SimpleMeterRegistry());
+        verifiedTokenCache.put(token, "bench", jwtTokenProvider.getExpirationDateFromToken(token));
+    }
+
+    @Benchmark
+    public String threeParses() {
+        Jwts.parserBuilder().setSigningKey(secretKey).build().parseClaimsJws(token);
+        Date expiration = Jwts.parserBuilder().setSigningKey(secretKey).build()
+                .parseClaimsJws(token).getBody().getExpiration();
+        if (expiration.before(new Date())) {
+            return null;
+        }
+        return Jwts.parserBuilder().setSigningKey(secretKey).build()
+                .parseClaimsJws(token).getBody().getSubject();
+    }
+
+    @Benchmark
+    public String singlePass() {
+        return jwtTokenProvider.parseValidClaims(token).map(Claims::getSubject).orElse(null);
+    }
+
+    @Benchmark
+    public String verifiedTokenCacheHit() {
+        return verifiedTokenCache.getSubject(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtAuthBenchmark.class.getSimpleName()).build()).run();
+    }
+}
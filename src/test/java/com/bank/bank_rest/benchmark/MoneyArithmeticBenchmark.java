@@ -0,0 +1,98 @@
+package com.bank.bank_rest.benchmark;
+
+import com.bank.bank_rest.model.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The balance math of one transfer as the transfer paths do it: check the amount and the source
+ * balance, debit, credit and add to both cards' net deltas. BigDecimal, as before, against {@link Money}.
+ * Each invocation moves the amount there and back, so the balances stay put.
+ * Add {@code -prof gc} to the JMH command line to see allocation per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class MoneyArithmeticBenchmark {
+
+    private final BigDecimal decimalAmount = new BigDecimal("125.40");
+    private BigDecimal decimalFirst = new BigDecimal("1000000.00");
+    private BigDecimal decimalSecond = new BigDecimal("1000000.00");
+    private BigDecimal decimalFirstDelta = BigDecimal.ZERO;
+    private BigDecimal decimalSecondDelta = BigDecimal.ZERO;
+
+    private final Money moneyAmount = Money.of("125.40");
+    private Money moneyFirst = Money.of("1000000.00");
+    private Money moneySecond = Money.of("1000000.00");
+    private Money moneyFirstDelta = Money.ZERO;
+    private Money moneySecondDelta = Money.ZERO;
+
+    @Benchmark
+    @OperationsPerInvocation(2)
+    public BigDecimal bigDecimalTransfer() {
+        // First to second
+        if (decimalAmount.compareTo(BigDecimal.ZERO) <= 0 || decimalFirst.compareTo(decimalAmount) < 0) {
+            throw new IllegalStateException("Insufficient balance");
+        }
+        decimalFirst = decimalFirst.subtract(decimalAmount);
+        decimalSecond = decimalSecond.add(decimalAmount);
+        decimalFirstDelta = decimalFirstDelta.add(decimalAmount.negate());
+        decimalSecondDelta = decimalSecondDelta.add(decimalAmount);
+
+        // And back
+        if (decimalAmount.compareTo(BigDecimal.ZERO) <= 0 || decimalSecond.compareTo(decimalAmount) < 0) {
+            throw new IllegalStateException("Insufficient balance");
+        }
+        decimalSecond = decimalSecond.subtract(decimalAmount);
+        decimalFirst = decimalFirst.add(decimalAmount);
+        decimalSecondDelta = decimalSecondDelta.add(decimalAmount.negate());
+        decimalFirstDelta = decimalFirstDelta.add(decimalAmount);
+        return decimalFirst;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(2)
+    public Money moneyTransfer() {
+        // First to second
+        if (!moneyAmount.isPositive() || moneyFirst.compareTo(moneyAmount) < 0) {
+            throw new IllegalStateException("Insufficient balance");
+        }
+        moneyFirst = moneyFirst.minus(moneyAmount);
+        moneySecond = moneySecond.plus(moneyAmount);
+        moneyFirstDelta = moneyFirstDelta.plus(moneyAmount.negate());
+        moneySecondDelta = moneySecondDelta.plus(moneyAmount);
+
+        // And back
+        if (!moneyAmount.isPositive() || moneySecond.compareTo(moneyAmount) < 0) {
+            throw new IllegalStateException("Insufficient balance");
+        }
+        moneySecond = moneySecond.minus(moneyAmount);
+        moneyFirst = moneyFirst.plus(moneyAmount);
+        moneySecondDelta = moneySecondDelta.plus(moneyAmount.negate());
+        moneyFirstDelta = moneyFirstDelta.plus(moneyAmount);
+        return moneyFirst;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MoneyArithmeticBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,190 @@
+package com.bank.bank_rest.benchmark;
+
+import com.bank.bank_rest.BankRestApplication;
+import com.bank.bank_rest.dto.card.CardCreateRequest;
+import com.bank.bank_rest.dto.login.LoginRequest;
+import com.bank.bank_rest.dto.user.UserRegistrationRequest;
+import com.bank.bank_rest.dto.user.UserResponse;
+import com.bank.bank_rest.model.enums.CardStatus;
+import com.bank.bank_rest.model.enums.Role;
+import com.bank.bank_rest.service.AuthService;
+import com.bank.bank_rest.service.CardService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Boots the application twice against the same PostgreSQL, once on Tomcat's platform thread pool
+ * and once with the virtual-threads profile, and drives each with the same number of closed-loop
+ * clients reading GET /api/cards and GET /api/transfers. Logs throughput and p50/p99 latency.
+ * Client counts default to 1000, 5000 and 10000; override with -Dbenchmark.threads.clients=1000,2000
+ * and the duration per run with -Dbenchmark.threads.seconds.
+ * Run with {@code ./mvnw test -Pbenchmark}.
+ */
+@Slf4j
+@Tag("benchmark")
+@Testcontainers(disabledWithoutDocker = true)
+class ThreadModelLoadBenchmarkTest {
+
+    private static final String PASSWORD = "password123";
+    private static final int USERS = 100;
+    private static final int CARDS_PER_USER = 3;
+    // Enough for a 20s run at 10k clients without holding gigabytes of samples
+    private static final int SAMPLES_PER_CLIENT = 2_048;
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withCommand("postgres", "-c", "max_connections=200");
+
+    @Test
+    void comparePlatformAndVirtualThreads() throws Exception {
+        int[] clientCounts = Arrays.stream(System.getProperty("benchmark.threads.clients", "1000,5000,10000")
+                .split(",")).mapToInt(count -> Integer.parseInt(count.trim())).toArray();
+        Duration runTime = Duration.ofSeconds(Integer.getInteger("benchmark.threads.seconds", 20));
+
+        for (String profile : List.of("platform", "virtual-threads")) {
+            try (ConfigurableApplicationContext context = start(profile)) {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                List<String> tokens = seed(context);
+                for (int clients : clientCounts) {
+                    Result result = drive(port, tokens, clients, runTime);
+                    log.info("{} threads, {} clients: {} req/s, p50 {} ms, p99 {} ms, {} errors",
+                            profile, clients, String.format("%.0f", result.throughput()),
+                            result.p50Millis(), result.p99Millis(), result.errors());
+                }
+            }
+        }
+    }
+
+    private ConfigurableApplicationContext start(String profile) {
+        return new SpringApplicationBuilder(BankRestApplication.class)
+                // "platform" has no properties file: the base configuration with Tomcat's worker pool
+                .profiles(profile)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=" + POSTGRES.getJdbcUrl(),
+                        "spring.datasource.username=" + POSTGRES.getUsername(),
+                        "spring.datasource.password=" + POSTGRES.getPassword(),
+                        "spring.liquibase.enabled=false",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.show-sql=false",
+                        // Same connection limits and pool for both runs, so only the thread model differs
+                        "server.tomcat.max-connections=20000",
+                        "server.tomcat.accept-count=1000",
+                        "spring.datasource.hikari.maximum-pool-size=32",
+                        "spring.datasource.hikari.minimum-idle=32")
+                .run();
+    }
+
+    private List<String> seed(ConfigurableApplicationContext context) {
+        AuthService authService = context.getBean(AuthService.class);
+        CardService cardService = context.getBean(CardService.class);
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            String username = "load" + i;
+            UserResponse user = authService.registerUser(new UserRegistrationRequest(
+                    username, PASSWORD, "Load", "Test", username + "@bank.com", Role.USER));
+            for (int card = 0; card < CARDS_PER_USER; card++) {
+                // A null number makes the service generate one
+                cardService.createCard(new CardCreateRequest(null, "Load Test", LocalDate.now().plusYears(2),
+                        CardStatus.ACTIVE, new BigDecimal("1000.00")), user.getId());
+            }
+            tokens.add(authService.login(new LoginRequest(username, PASSWORD)).getToken());
+        }
+        return tokens;
+    }
+
+    private Result drive(int port, List<String> tokens, int clients, Duration runTime) throws InterruptedException {
+        HttpClient http = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        String[] paths = {"/api/cards?size=10", "/api/transfers?size=10"};
+
+        // The first quarter of the run warms up the JIT, connections and caches and is not recorded
+        long warmUpEnd = System.nanoTime() + runTime.toNanos() / 4;
+        long end = System.nanoTime() + runTime.toNanos();
+        List<long[]> latenciesPerClient = new ArrayList<>();
+        AtomicLong errors = new AtomicLong();
+
+        try (ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                String token = tokens.get(i % tokens.size());
+                long[] latencies = new long[SAMPLES_PER_CLIENT + 1];
+                latenciesPerClient.add(latencies);
+                int client = i;
+                clientThreads.submit(() -> {
+                    int recorded = 0;
+                    int request = client;
+                    while (System.nanoTime() < end) {
+                        HttpRequest httpRequest = HttpRequest.newBuilder(
+                                        URI.create("http://localhost:" + port + paths[request++ % paths.length]))
+                                .header("Authorization", "Bearer " + token)
+                                .timeout(Duration.ofSeconds(30))
+                                .GET()
+                                .build();
+                        long startedAt = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = http.send(httpRequest, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        if (startedAt >= warmUpEnd && recorded < SAMPLES_PER_CLIENT) {
+                            latencies[++recorded] = System.nanoTime() - startedAt;
+                        }
+                    }
+                    // Slot 0 holds the number of recorded samples
+                    latencies[0] = recorded;
+                });
+            }
+        }
+        http.close();
+
+        long samples = latenciesPerClient.stream().mapToLong(latencies -> latencies[0]).sum();
+        long[] all = new long[(int) samples];
+        int offset = 0;
+        for (long[] latencies : latenciesPerClient) {
+            System.arraycopy(latencies, 1, all, offset, (int) latencies[0]);
+            offset += (int) latencies[0];
+        }
+        Arrays.sort(all);
+
+        double measuredSeconds = runTime.toNanos() * 0.75 / 1_000_000_000.0;
+        return new Result(samples / measuredSeconds, percentileMillis(all, 0.50), percentileMillis(all, 0.99),
+                errors.get());
+    }
+
+    private double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1);
+        return Math.round(sorted[Math.max(index, 0)] / 10_000.0) / 100.0;
+    }
+
+    private record Result(double throughput, double p50Millis, double p99Millis, long errors) {
+    }
+}
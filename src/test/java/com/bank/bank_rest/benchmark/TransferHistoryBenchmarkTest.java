@@ -0,0 +1,134 @@
+package com.bank.bank_rest.benchmark;
+
+import com.bank.bank_rest.integration.AbstractPostgresIntegrationTest;
+import com.bank.bank_rest.model.Transfer;
+import com.bank.bank_rest.service.TransferService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Compares a transfer history page loaded the old way (JPQL with an OR over both card owners,
+ * then lazy loading of both cards per row) with the native UNION ALL read model.
+ * The dataset size defaults to two million transfers; override with -Dbenchmark.history.transfers.
+ * Run with {@code ./mvnw test -Pbenchmark}.
+ */
+@Slf4j
+@Tag("benchmark")
+class TransferHistoryBenchmarkTest extends AbstractPostgresIntegrationTest {
+
+    private static final int USERS = 1_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int PAGE_LOADS = 200;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TransferService transferService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void compareOrQueryWithUnionReadModel() {
+        int transfers = Integer.getInteger("benchmark.history.transfers", 2_000_000);
+        List<Long> ownerIds = seed(transfers);
+
+        // Warm up both paths before measuring
+        for (int i = 0; i < 20; i++) {
+            loadWithOrQuery(ownerIds.get(i));
+            transferService.getTransfers(ownerIds.get(i), 0, PAGE_SIZE, null);
+        }
+
+        long orQuery = 0;
+        long readModel = 0;
+        for (int i = 0; i < PAGE_LOADS; i++) {
+            Long ownerId = ownerIds.get(ThreadLocalRandom.current().nextInt(ownerIds.size()));
+
+            long startedAt = System.nanoTime();
+            loadWithOrQuery(ownerId);
+            orQuery += System.nanoTime() - startedAt;
+
+            startedAt = System.nanoTime();
+            transferService.getTransfers(ownerId, 0, PAGE_SIZE, null);
+            readModel += System.nanoTime() - startedAt;
+        }
+
+        log.info("History page over {} transfers, avg ms: OR query + lazy cards -> {}, UNION ALL read model -> {}",
+                transfers, orQuery / PAGE_LOADS / 1_000_000.0, readModel / PAGE_LOADS / 1_000_000.0);
+    }
+
+    private void loadWithOrQuery(Long ownerId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Transfer> page = entityManager.createQuery(
+                            "SELECT t FROM Transfer t WHERE " +
+                            "(t.fromCard.owner.id = :ownerId OR t.toCard.owner.id = :ownerId) " +
+                            "ORDER BY t.transferDate DESC", Transfer.class)
+                    .setParameter("ownerId", ownerId)
+                    .setMaxResults(PAGE_SIZE)
+                    .getResultList();
+            entityManager.createQuery(
+                            "SELECT COUNT(t) FROM Transfer t WHERE " +
+                            "(t.fromCard.owner.id = :ownerId OR t.toCard.owner.id = :ownerId)", Long.class)
+                    .setParameter("ownerId", ownerId)
+                    .getSingleResult();
+            // What mapToTransferResponse used to do for every row
+            page.forEach(transfer -> {
+                transfer.getFromCard().getMaskedNumber();
+                transfer.getToCard().getMaskedNumber();
+            });
+            entityManager.clear();
+        });
+    }
+
+    private List<Long> seed(int transfers) {
+        String prefix = "hist-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+
+        jdbcTemplate.update("""
+                INSERT INTO users (id, username, password, first_name, last_name, email, role, created_at, enabled)
+                SELECT nextval('users_id_seq'), ? || g, 'not-used', 'History', 'Bench', ? || g || '@bank.com',
+                       'USER', now(), true
+                FROM generate_series(1, ?) g
+                """, prefix, prefix, USERS);
+
+        jdbcTemplate.update("""
+                INSERT INTO cards (id, encrypted_number, masked_number, owner_id, card_holder_name, expiry_date,
+                                   status, balance, created_at, version)
+                SELECT nextval('cards_id_seq'), u.username || '-' || n, '**** **** **** 000' || n, u.id,
+                       'History Bench', current_date + 365, 'ACTIVE', 0, now(), 0
+                FROM users u CROSS JOIN generate_series(1, 2) n
+                WHERE u.username LIKE ? || '%'
+                """, prefix);
+
+        // Transfers alternate direction between each owner's two cards, spread over the past months
+        jdbcTemplate.update("""
+                INSERT INTO transfers (id, from_card_id, to_card_id, amount, transfer_date, description, successful)
+                SELECT nextval('transfers_id_seq'),
+                       CASE WHEN g % 2 = 0 THEN o.cards[1] ELSE o.cards[2] END,
+                       CASE WHEN g % 2 = 0 THEN o.cards[2] ELSE o.cards[1] END,
+                       1.00, now() - g * interval '5 seconds', 'history', true
+                FROM generate_series(1, ?) g
+                JOIN (SELECT row_number() OVER (ORDER BY c.owner_id) - 1 AS rn, array_agg(c.id ORDER BY c.id) AS cards
+                      FROM cards c JOIN users u ON u.id = c.owner_id
+                      WHERE u.username LIKE ? || '%'
+                      GROUP BY c.owner_id) o ON o.rn = g % ?
+                """, transfers, prefix, USERS);
+
+        jdbcTemplate.execute("ANALYZE");
+
+        return jdbcTemplate.queryForList("SELECT id FROM users WHERE username LIKE ? || '%'", Long.class, prefix);
+    }
+}
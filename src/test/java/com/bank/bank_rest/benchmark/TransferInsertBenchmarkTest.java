@@ -0,0 +1,102 @@
+package com.bank.bank_rest.benchmark;
+
+import com.bank.bank_rest.integration.AbstractPostgresIntegrationTest;
+import com.bank.bank_rest.model.Card;
+import com.bank.bank_rest.model.Money;
+import com.bank.bank_rest.model.Transfer;
+import com.bank.bank_rest.model.User;
+import com.bank.bank_rest.model.enums.CardStatus;
+import com.bank.bank_rest.model.enums.Role;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Compares transfer insert throughput with JDBC batching disabled (one round trip per row,
+ * which is what IDENTITY ids forced) and with the configured hibernate.jdbc.batch_size.
+ * Run with {@code ./mvnw test -Pbenchmark}.
+ */
+@Slf4j
+@Tag("benchmark")
+class TransferInsertBenchmarkTest extends AbstractPostgresIntegrationTest {
+
+    private static final int ROWS = 20_000;
+    private static final int FLUSH_EVERY = 1_000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void compareUnbatchedAndBatchedInserts() {
+        Long[] cardIds = transactionTemplate.execute(status -> createCards());
+
+        // Warm up connection pool, statement cache and JIT before measuring
+        insert(cardIds, 1, FLUSH_EVERY);
+        insert(cardIds, 50, FLUSH_EVERY);
+
+        long unbatched = insert(cardIds, 1, ROWS);
+        long batched = insert(cardIds, 50, ROWS);
+
+        log.info("Transfer inserts/sec: batch_size=1 -> {}, batch_size=50 -> {}",
+                ROWS * 1_000_000_000L / unbatched, ROWS * 1_000_000_000L / batched);
+    }
+
+    private long insert(Long[] cardIds, int batchSize, int rows) {
+        long startedAt = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            for (int i = 0; i < rows; i++) {
+                Transfer transfer = new Transfer();
+                transfer.setFromCard(entityManager.getReference(Card.class, cardIds[0]));
+                transfer.setToCard(entityManager.getReference(Card.class, cardIds[1]));
+                transfer.setAmount(Money.of("1.00"));
+                transfer.setDescription("benchmark");
+                entityManager.persist(transfer);
+
+                if ((i + 1) % FLUSH_EVERY == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+        });
+        return System.nanoTime() - startedAt;
+    }
+
+    private Long[] createCards() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        User owner = new User();
+        owner.setUsername("bench-" + suffix);
+        owner.setPassword("not-used");
+        owner.setFirstName("Bench");
+        owner.setLastName("Mark");
+        owner.setEmail("bench-" + suffix + "@bank.com");
+        owner.setRole(Role.USER);
+        entityManager.persist(owner);
+
+        Long[] ids = new Long[2];
+        for (int i = 0; i < ids.length; i++) {
+            Card card = new Card();
+            card.setEncryptedNumber(UUID.randomUUID().toString());
+            card.setMaskedNumber("**** **** **** 0000");
+            card.setOwner(owner);
+            card.setCardHolderName("Bench Mark");
+            card.setExpiryDate(LocalDate.now().plusYears(1));
+            card.setStatus(CardStatus.ACTIVE);
+            card.setBalance(Money.ZERO);
+            entityManager.persist(card);
+            ids[i] = card.getId();
+        }
+        return ids;
+    }
+}
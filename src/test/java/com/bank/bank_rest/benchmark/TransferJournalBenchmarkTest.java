@@ -0,0 +1,184 @@
+package com.bank.bank_rest.benchmark;
+
+import com.bank.bank_rest.BankRestApplication;
+import com.bank.bank_rest.dto.transfer.TransferRequest;
+import com.bank.bank_rest.integration.AbstractPostgresIntegrationTest;
+import com.bank.bank_rest.model.Card;
+import com.bank.bank_rest.model.Money;
+import com.bank.bank_rest.model.User;
+import com.bank.bank_rest.model.enums.CardStatus;
+import com.bank.bank_rest.model.enums.Role;
+import com.bank.bank_rest.repository.CardRepository;
+import com.bank.bank_rest.repository.UserRepository;
+import com.bank.bank_rest.service.TransferEngine;
+import com.bank.bank_rest.service.TransferService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares transfer throughput on one hot pair of cards: the synchronous JPA path, where every transfer
+ * locks both rows and commits on its own, against the transfer engine in JOURNAL mode, where a shard
+ * acknowledges a batch after one fsync of the memory-mapped journal and the flusher writes it to the
+ * database later. The synchronous path is refused while the engine journals, so it is measured in a second
+ * application context on the same database with the engine off. Client threads default to 32; override with -Dbenchmark.journal.clients, and the
+ * transfers per client with -Dbenchmark.journal.transfers.
+ * Run with {@code ./mvnw test -Pbenchmark}.
+ */
+@Slf4j
+@Tag("benchmark")
+class TransferJournalBenchmarkTest extends AbstractPostgresIntegrationTest {
+
+    @DynamicPropertySource
+    static void engineProperties(DynamicPropertyRegistry registry) throws Exception {
+        String journal = Files.createTempDirectory("transfer-journal").resolve("journal.bin").toString();
+        registry.add("bank.transfer.engine.enabled", () -> "true");
+        registry.add("bank.transfer.engine.durability", () -> "JOURNAL");
+        registry.add("bank.transfer.engine.journal.path", () -> journal);
+    }
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private TransferEngine transferEngine;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void compareSynchronousPathWithJournal() throws Exception {
+        int clients = Integer.getInteger("benchmark.journal.clients", 32);
+        int transfersPerClient = Integer.getInteger("benchmark.journal.transfers", 200);
+        int total = clients * transfersPerClient;
+
+        User syncOwner = createUser();
+        Card syncFrom = createCard(syncOwner);
+        Card syncTo = createCard(syncOwner);
+        User journalOwner = createUser();
+        Card journalFrom = createCard(journalOwner);
+        Card journalTo = createCard(journalOwner);
+
+        long synchronous;
+        try (ConfigurableApplicationContext synchronousContext = startWithoutEngine()) {
+            TransferService transferService = synchronousContext.getBean(TransferService.class);
+            run(10, 20, () -> transferService.transferMoney(request(syncFrom, syncTo), syncOwner.getId()));
+            synchronous = run(clients, transfersPerClient,
+                    () -> transferService.transferMoney(request(syncFrom, syncTo), syncOwner.getId()));
+        }
+
+        run(10, 20, () -> transferEngine.submit(request(journalFrom, journalTo), journalOwner.getId()).get());
+        long journaled = run(clients, transfersPerClient,
+                () -> transferEngine.submit(request(journalFrom, journalTo), journalOwner.getId()).get());
+
+        log.info("{} transfers on one card pair from {} clients, transfers/sec: synchronous JPA -> {}, journal -> {}",
+                total, clients, total * 1_000_000_000L / synchronous, total * 1_000_000_000L / journaled);
+
+        // Acknowledged means durable: every journaled transfer reaches the database
+        int expected = total + 200;
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (countTransfers(journalFrom) < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(expected, countTransfers(journalFrom));
+        assertEquals(Money.ofMinor(100_000_000 - expected),
+                cardRepository.findById(journalFrom.getId()).orElseThrow().getBalance());
+    }
+
+    private ConfigurableApplicationContext startWithoutEngine() {
+        return new SpringApplicationBuilder(BankRestApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=" + environment.getProperty("spring.datasource.url"),
+                        "spring.datasource.username=" + environment.getProperty("spring.datasource.username"),
+                        "spring.datasource.password=" + environment.getProperty("spring.datasource.password"),
+                        "spring.liquibase.enabled=false",
+                        // The schema belongs to the test context, which drops it at the end
+                        "spring.jpa.hibernate.ddl-auto=none",
+                        "bank.transfer.engine.enabled=false")
+                .run();
+    }
+
+    private long run(int clients, int transfersPerClient, TransferCall transfer) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        List<Future<?>> futures = new ArrayList<>();
+        long startedAt = System.nanoTime();
+        for (int c = 0; c < clients; c++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < transfersPerClient; i++) {
+                    transfer.run();
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - startedAt;
+        executor.shutdown();
+        return elapsed;
+    }
+
+    private int countTransfers(Card from) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM transfers WHERE from_card_id = ?",
+                Integer.class, from.getId());
+    }
+
+    private TransferRequest request(Card from, Card to) {
+        return new TransferRequest(from.getId(), to.getId(), Money.of("0.01"), "journal bench");
+    }
+
+    private User createUser() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        User user = new User();
+        user.setUsername("journal-" + suffix);
+        user.setPassword("not-used");
+        user.setFirstName("Journal");
+        user.setLastName("Bench");
+        user.setEmail("journal-" + suffix + "@bank.com");
+        user.setRole(Role.USER);
+        return userRepository.save(user);
+    }
+
+    private Card createCard(User owner) {
+        Card card = new Card();
+        card.setEncryptedNumber(UUID.randomUUID().toString());
+        card.setMaskedNumber("**** **** **** 0000");
+        card.setOwner(owner);
+        card.setCardHolderName("Journal Bench");
+        card.setExpiryDate(LocalDate.now().plusYears(1));
+        card.setStatus(CardStatus.ACTIVE);
+        card.setBalance(Money.of("1000000.00"));
+        return cardRepository.save(card);
+    }
+
+    @FunctionalInterface
+    private interface TransferCall {
+        void run() throws Exception;
+    }
+}
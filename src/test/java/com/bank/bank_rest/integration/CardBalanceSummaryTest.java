@@ -0,0 +1,118 @@
+package com.bank.bank_rest.integration;
+
+import com.bank.bank_rest.dto.card.CardBalanceSummaryResponse;
+import com.bank.bank_rest.dto.card.CardCreateRequest;
+import com.bank.bank_rest.dto.card.CardResponse;
+import com.bank.bank_rest.dto.card.CardStatusTotal;
+import com.bank.bank_rest.dto.transfer.TransferRequest;
+import com.bank.bank_rest.model.Money;
+import com.bank.bank_rest.model.User;
+import com.bank.bank_rest.model.enums.CardStatus;
+import com.bank.bank_rest.model.enums.Role;
+import com.bank.bank_rest.repository.UserRepository;
+import com.bank.bank_rest.service.CardBalanceSummaryReconciler;
+import com.bank.bank_rest.service.CardBalanceSummaryService;
+import com.bank.bank_rest.service.CardService;
+import com.bank.bank_rest.service.TransferService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The card summary must follow every card change in the same transaction,
+ * and the reconciler must notice and repair rows changed behind its back.
+ */
+@TestPropertySource(properties = "bank.card.summary.reconcile.repair=true")
+class CardBalanceSummaryTest extends AbstractPostgresIntegrationTest {
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private CardBalanceSummaryService cardBalanceSummaryService;
+
+    @Autowired
+    private CardBalanceSummaryReconciler reconciler;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void summaryFollowsCardChanges() {
+        Long ownerId = createUser().getId();
+        CardResponse first = cardService.createCard(cardRequest("100.00"), ownerId);
+        CardResponse second = cardService.createCard(cardRequest("50.00"), ownerId);
+        CardResponse third = cardService.createCard(cardRequest("25.00"), ownerId);
+
+        transferService.transferMoney(new TransferRequest(first.getId(), second.getId(), Money.of("30.00"), null), ownerId);
+        cardService.updateCardStatus(second.getId(), CardStatus.BLOCKED, ownerId);
+        cardService.deleteCard(third.getId(), ownerId);
+
+        CardBalanceSummaryResponse summary = cardBalanceSummaryService.getSummary(ownerId);
+        Map<CardStatus, CardStatusTotal> byStatus = byStatus(summary);
+
+        assertEquals(2, summary.getCardCount());
+        assertEquals(0, new BigDecimal("150.00").compareTo(summary.getTotalBalance()));
+        assertEquals(1, byStatus.get(CardStatus.ACTIVE).getCardCount());
+        assertEquals(0, new BigDecimal("70.00").compareTo(byStatus.get(CardStatus.ACTIVE).getTotalBalance()));
+        assertEquals(1, byStatus.get(CardStatus.BLOCKED).getCardCount());
+        assertEquals(0, new BigDecimal("80.00").compareTo(byStatus.get(CardStatus.BLOCKED).getTotalBalance()));
+    }
+
+    @Test
+    void reconcilerRepairsDriftedSummary() {
+        Long ownerId = createUser().getId();
+        CardResponse card = cardService.createCard(cardRequest("10.00"), ownerId);
+        jdbcTemplate.update("UPDATE cards SET balance = 99.00 WHERE id = ?", card.getId());
+
+        double before = meterRegistry.counter("bank.cards.summary.mismatches").count();
+        reconciler.reconcile();
+
+        assertTrue(meterRegistry.counter("bank.cards.summary.mismatches").count() > before);
+        assertEquals(0, new BigDecimal("99.00").compareTo(cardBalanceSummaryService.getSummary(ownerId).getTotalBalance()));
+    }
+
+    private Map<CardStatus, CardStatusTotal> byStatus(CardBalanceSummaryResponse summary) {
+        return summary.getByStatus().stream().collect(Collectors.toMap(CardStatusTotal::getStatus, total -> total));
+    }
+
+    private CardCreateRequest cardRequest(String balance) {
+        CardCreateRequest request = new CardCreateRequest();
+        request.setCardHolderName("Summary Test");
+        request.setExpiryDate(LocalDate.now().plusYears(2));
+        request.setInitialBalance(new BigDecimal(balance));
+        return request;
+    }
+
+    private User createUser() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        User user = new User();
+        user.setUsername("summary-" + suffix);
+        user.setPassword("not-used");
+        user.setFirstName("Summary");
+        user.setLastName("Test");
+        user.setEmail("summary-" + suffix + "@bank.com");
+        user.setRole(Role.USER);
+        return userRepository.save(user);
+    }
+}
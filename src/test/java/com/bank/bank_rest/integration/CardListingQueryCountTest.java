@@ -0,0 +1,129 @@
+package com.bank.bank_rest.integration;
+
+import com.bank.bank_rest.dto.card.CardFilterRequest;
+import com.bank.bank_rest.dto.card.CardResponse;
+import com.bank.bank_rest.model.Card;
+import com.bank.bank_rest.model.Money;
+import com.bank.bank_rest.model.User;
+import com.bank.bank_rest.model.enums.CardStatus;
+import com.bank.bank_rest.model.enums.Role;
+import com.bank.bank_rest.repository.CardRepository;
+import com.bank.bank_rest.repository.UserRepository;
+import com.bank.bank_rest.service.CardService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Guards the card list endpoints against N+1 selects on Card.owner:
+ * a page must cost the content query plus the count query, whatever its size.
+ */
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class CardListingQueryCountTest extends AbstractPostgresIntegrationTest {
+
+    private static final int OWNERS = 20;
+    private static final int MAX_STATEMENTS_PER_PAGE = 2;
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void adminPageOfCardsFromManyOwnersUsesFixedNumberOfStatements() {
+        for (int i = 0; i < OWNERS; i++) {
+            createCard(createUser());
+        }
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "admin", null, List.of(new SimpleGrantedAuthority("ADMIN"))));
+
+        CardFilterRequest filter = new CardFilterRequest();
+        filter.setSize(OWNERS);
+
+        Page<CardResponse> page = countingStatements(() -> cardService.getCards(filter, null));
+
+        assertEquals(OWNERS, page.getContent().size());
+        assertTrue(page.getContent().stream().allMatch(card -> card.getOwnerName() != null));
+    }
+
+    @Test
+    void userPageOfCardsUsesFixedNumberOfStatements() {
+        User owner = createUser();
+        for (int i = 0; i < 5; i++) {
+            createCard(owner);
+        }
+
+        CardFilterRequest filter = new CardFilterRequest();
+        filter.setSize(3);
+
+        Page<CardResponse> page = countingStatements(() -> cardService.getCards(filter, owner.getId()));
+
+        assertEquals(3, page.getContent().size());
+        assertEquals(5, page.getTotalElements());
+        assertTrue(page.getContent().stream().allMatch(card -> card.getOwnerId().equals(owner.getId())));
+    }
+
+    private Page<CardResponse> countingStatements(Supplier<Page<CardResponse>> pageLoad) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Page<CardResponse> page = pageLoad.get();
+
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= MAX_STATEMENTS_PER_PAGE,
+                "Card page load issued " + statements + " statements, expected at most " + MAX_STATEMENTS_PER_PAGE);
+        return page;
+    }
+
+    private User createUser() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        User user = new User();
+        user.setUsername("count-" + suffix);
+        user.setPassword("not-used");
+        user.setFirstName("Query");
+        user.setLastName("Count");
+        user.setEmail("count-" + suffix + "@bank.com");
+        user.setRole(Role.USER);
+        return userRepository.save(user);
+    }
+
+    private void createCard(User owner) {
+        Card card = new Card();
+        card.setEncryptedNumber(UUID.randomUUID().toString());
+        card.setMaskedNumber("**** **** **** 0000");
+        card.setOwner(owner);
+        card.setCardHolderName("Query Count");
+        card.setExpiryDate(LocalDate.now().plusYears(1));
+        card.setStatus(CardStatus.ACTIVE);
+        card.setBalance(Money.of("10.00"));
+        cardRepository.save(card);
+    }
+}
@@ -0,0 +1,121 @@
+package com.bank.bank_rest.integration;
+
+import com.bank.bank_rest.model.enums.CardStatus;
+import com.bank.bank_rest.repository.CardRepository;
+import com.bank.bank_rest.repository.TransferRepository;
+import com.bank.bank_rest.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs every repository query the application uses, captures the SQL Hibernate sent and checks its
+ * plan with EXPLAIN (GENERIC_PLAN) while sequential scans are disabled. A query that still plans a
+ * Seq Scan has no index able to serve it.
+ */
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.bank.bank_rest.integration.RecordingStatementInspector")
+class QueryIndexUsageTest extends AbstractPostgresIntegrationTest {
+
+    // A bare "$1 is null" has no type context in a generic plan; nullable filters are strings or enums
+    private static final Pattern UNTYPED_NULL_CHECK = Pattern.compile("(\\$\\d+) is null", Pattern.CASE_INSENSITIVE);
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private TransferRepository transferRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void everyRepositoryQueryIsServedByAnIndex() {
+        Pageable byCreatedAt = PageRequest.of(0, 10, Sort.by("createdAt").descending());
+        Pageable unsorted = PageRequest.of(0, 10);
+        LocalDateTime now = LocalDateTime.now();
+
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("cards by owner",
+                () -> cardRepository.findResponsesByOwnerWithFilters(1L, null, null, null, byCreatedAt));
+        queries.put("cards by owner and status",
+                () -> cardRepository.findResponsesByOwnerWithFilters(1L, CardStatus.ACTIVE, null, null, byCreatedAt));
+        queries.put("cards by owner and last four digits",
+                () -> cardRepository.findResponsesByOwnerWithFilters(1L, null, "1234", null, byCreatedAt));
+        queries.put("cards by status", () -> cardRepository.findResponses(CardStatus.ACTIVE, byCreatedAt));
+        queries.put("cards by owner after cursor",
+                () -> cardRepository.findResponsesByOwnerAfter(1L, null, null, null, now, 1L, Limit.of(11)));
+        queries.put("cards after cursor", () -> cardRepository.findResponsesAfter(null, now, 1L, Limit.of(11)));
+        queries.put("card by number hash", () -> cardRepository.existsByNumberHash("hash"));
+        queries.put("cards for update", () -> cardRepository.findAllByIdForUpdate(List.of(1L, 2L)));
+        queries.put("history by owner", () -> transferRepository.findHistoryByOwner(1L, unsorted));
+        queries.put("history by card", () -> transferRepository.findHistoryByCard(1L, unsorted));
+        queries.put("history by owner after cursor", () -> transferRepository.findHistoryByOwnerAfter(1L, now, 1L, 11));
+        queries.put("history by card after cursor", () -> transferRepository.findHistoryByCardAfter(1L, now, 1L, 11));
+        queries.put("transfer with cards", () -> transferRepository.findByIdWithCards(1L));
+        queries.put("user by username", () -> userRepository.findByUsername("user"));
+        queries.put("user by email", () -> userRepository.existsByEmail("user@bank.com"));
+        queries.put("users after cursor", () -> userRepository.findResponsesAfter(now, 1L, Limit.of(11)));
+
+        queries.forEach((name, query) -> {
+            RecordingStatementInspector.drain();
+            transactionTemplate.executeWithoutResult(status -> query.run());
+            List<String> statements = RecordingStatementInspector.drain();
+            assertFalse(statements.isEmpty(), name + " ran no SQL");
+
+            for (String sql : statements) {
+                String plan = explain(sql);
+                assertFalse(plan.contains("Seq Scan"), name + " plans a sequential scan:\n" + sql + "\n" + plan);
+                assertTrue(plan.contains("Index"), name + " uses no index:\n" + sql + "\n" + plan);
+            }
+        });
+    }
+
+    private String explain(String sql) {
+        String generic = UNTYPED_NULL_CHECK.matcher(toNumberedParameters(sql)).replaceAll("$1::text is null");
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+            return String.join("\n", jdbcTemplate.queryForList("EXPLAIN (GENERIC_PLAN) " + generic, String.class));
+        });
+    }
+
+    // JDBC "?" placeholders become "$n" so PostgreSQL can plan the statement without values
+    private static String toNumberedParameters(String sql) {
+        StringBuilder numbered = new StringBuilder(sql.length() + 16);
+        boolean inLiteral = false;
+        int parameter = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                inLiteral = !inLiteral;
+            }
+            if (c == '?' && !inLiteral) {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+        return numbered.toString();
+    }
+}
@@ -0,0 +1,107 @@
+package com.bank.bank_rest.integration;
+
+import com.bank.bank_rest.dto.transfer.TransferRequest;
+import com.bank.bank_rest.model.Card;
+import com.bank.bank_rest.model.Money;
+import com.bank.bank_rest.model.User;
+import com.bank.bank_rest.model.enums.CardStatus;
+import com.bank.bank_rest.model.enums.Role;
+import com.bank.bank_rest.repository.CardRepository;
+import com.bank.bank_rest.repository.UserRepository;
+import com.bank.bank_rest.service.TransferService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Slf4j
+class TransferConcurrencyTest extends AbstractPostgresIntegrationTest {
+
+    private static final int THREADS = 16;
+    private static final int TRANSFERS_PER_THREAD = 50;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Test
+    void concurrentTransfersInBothDirectionsDoNotLoseUpdates() throws Exception {
+        User owner = createUser();
+        Card first = createCard(owner, Money.of("100000.00"));
+        Card second = createCard(owner, Money.of("100000.00"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        long startedAt = System.nanoTime();
+
+        // Even threads move money first -> second, odd threads second -> first: the classic deadlock shape
+        for (int t = 0; t < THREADS; t++) {
+            boolean forward = t % 2 == 0;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    TransferRequest request = new TransferRequest(
+                            forward ? first.getId() : second.getId(),
+                            forward ? second.getId() : first.getId(),
+                            forward ? Money.of("3.00") : Money.of("1.00"),
+                            "stress");
+                    transferService.transferMoney(request, owner.getId());
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        long elapsedNanos = System.nanoTime() - startedAt;
+        int totalTransfers = THREADS * TRANSFERS_PER_THREAD;
+        log.info("{} concurrent transfers in {} ms ({} transfers/sec)",
+                totalTransfers, elapsedNanos / 1_000_000, totalTransfers * 1_000_000_000L / elapsedNanos);
+
+        // Each direction ran THREADS / 2 * TRANSFERS_PER_THREAD times
+        Money netMovedForward = Money.ofMinor(200L * (totalTransfers / 2));
+        Card firstAfter = cardRepository.findById(first.getId()).orElseThrow();
+        Card secondAfter = cardRepository.findById(second.getId()).orElseThrow();
+        assertEquals(Money.of("100000.00").minus(netMovedForward), firstAfter.getBalance());
+        assertEquals(Money.of("100000.00").plus(netMovedForward), secondAfter.getBalance());
+    }
+
+    private User createUser() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        User user = new User();
+        user.setUsername("stress-" + suffix);
+        user.setPassword("not-used");
+        user.setFirstName("Stress");
+        user.setLastName("Test");
+        user.setEmail("stress-" + suffix + "@bank.com");
+        user.setRole(Role.USER);
+        return userRepository.save(user);
+    }
+
+    private Card createCard(User owner, Money balance) {
+        Card card = new Card();
+        card.setEncryptedNumber(UUID.randomUUID().toString());
+        card.setMaskedNumber("**** **** **** 0000");
+        card.setOwner(owner);
+        card.setCardHolderName("Stress Test");
+        card.setExpiryDate(LocalDate.now().plusYears(1));
+        card.setStatus(CardStatus.ACTIVE);
+        card.setBalance(balance);
+        return cardRepository.save(card);
+    }
+}
@@ -0,0 +1,170 @@
+package com.bank.bank_rest.integration;
+
+import com.bank.bank_rest.dto.card.CardLimitsRequest;
+import com.bank.bank_rest.dto.transfer.TransferRequest;
+import com.bank.bank_rest.dto.transfer.TransferResponse;
+import com.bank.bank_rest.model.Card;
+import com.bank.bank_rest.model.Money;
+import com.bank.bank_rest.model.User;
+import com.bank.bank_rest.model.enums.CardStatus;
+import com.bank.bank_rest.model.enums.Role;
+import com.bank.bank_rest.repository.CardRepository;
+import com.bank.bank_rest.repository.UserRepository;
+import com.bank.bank_rest.service.CardService;
+import com.bank.bank_rest.service.TransferEngine;
+import com.bank.bank_rest.service.TransferService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@TestPropertySource(properties = {
+        "bank.transfer.engine.enabled=true",
+        "bank.transfer.engine.shards=2",
+        "bank.transfer.engine.batch-size=32"
+})
+class TransferEngineTest extends AbstractPostgresIntegrationTest {
+
+    @Autowired
+    private TransferEngine transferEngine;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void queuedTransfersStopAtTheBalance() throws Exception {
+        User owner = createUser();
+        Card from = createCard(owner, Money.of("100.00"));
+        Card to = createCard(owner, Money.of("100.00"));
+
+        List<CompletableFuture<TransferResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            futures.add(transferEngine.submit(
+                    new TransferRequest(from.getId(), to.getId(), Money.of("1.00"), "engine"), owner.getId()));
+        }
+
+        int committed = 0;
+        for (CompletableFuture<TransferResponse> future : futures) {
+            try {
+                future.get();
+                committed++;
+            } catch (ExecutionException e) {
+                assertEquals("Insufficient balance", e.getCause().getMessage());
+            }
+        }
+
+        assertEquals(100, committed);
+        assertEquals(Money.ZERO, cardRepository.findById(from.getId()).orElseThrow().getBalance());
+        assertEquals(Money.of("200.00"), cardRepository.findById(to.getId()).orElseThrow().getBalance());
+        assertEquals(100, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM transfers WHERE from_card_id = ?", Integer.class, from.getId()));
+    }
+
+    @Test
+    void cardChangedOutsideTheEngineIsReloaded() throws Exception {
+        User owner = createUser();
+        Card from = createCard(owner, Money.of("100.00"));
+        Card to = createCard(owner, Money.ZERO);
+
+        // The shard now holds both cards with 90.00 left on the source
+        transferEngine.submit(new TransferRequest(from.getId(), to.getId(), Money.of("10.00"), "engine"),
+                owner.getId()).get();
+        // The synchronous path spends most of it behind the shard's back
+        transferService.transferMoney(new TransferRequest(from.getId(), to.getId(), Money.of("80.00"), "sync"),
+                owner.getId());
+
+        CompletableFuture<TransferResponse> stale = transferEngine.submit(
+                new TransferRequest(from.getId(), to.getId(), Money.of("50.00"), "engine"), owner.getId());
+        ExecutionException rejected = assertThrows(ExecutionException.class, stale::get);
+        assertEquals("Insufficient balance", rejected.getCause().getMessage());
+
+        // The reloaded copy has the real balance
+        transferEngine.submit(new TransferRequest(from.getId(), to.getId(), Money.of("10.00"), "engine"),
+                owner.getId()).get();
+        assertEquals(Money.ZERO, cardRepository.findById(from.getId()).orElseThrow().getBalance());
+        assertEquals(Money.of("100.00"), cardRepository.findById(to.getId()).orElseThrow().getBalance());
+    }
+
+    @Test
+    void rejectionFromAStaleCopyIsCheckedAgainstTheDatabase() throws Exception {
+        User owner = createUser();
+        Card from = createCard(owner, Money.of("10.00"));
+        Card to = createCard(owner, Money.ZERO);
+        Card other = createCard(owner, Money.of("100.00"));
+
+        // The shard's copy of the source card is empty now
+        transferEngine.submit(new TransferRequest(from.getId(), to.getId(), Money.of("10.00"), "engine"),
+                owner.getId()).get();
+        // Credited behind the shard's back
+        transferService.transferMoney(new TransferRequest(other.getId(), from.getId(), Money.of("50.00"), "sync"),
+                owner.getId());
+
+        transferEngine.submit(new TransferRequest(from.getId(), to.getId(), Money.of("30.00"), "engine"),
+                owner.getId()).get();
+        assertEquals(Money.of("20.00"), cardRepository.findById(from.getId()).orElseThrow().getBalance());
+        assertEquals(Money.of("40.00"), cardRepository.findById(to.getId()).orElseThrow().getBalance());
+    }
+
+    @Test
+    void lowerLimitEvictsTheCachedCard() throws Exception {
+        User owner = createUser();
+        Card from = createCard(owner, Money.of("100.00"));
+        Card to = createCard(owner, Money.ZERO);
+
+        transferEngine.submit(new TransferRequest(from.getId(), to.getId(), Money.of("10.00"), "engine"),
+                owner.getId()).get();
+        cardService.updateCardLimits(from.getId(), new CardLimitsRequest(new BigDecimal("15.00"), null));
+
+        CompletableFuture<TransferResponse> overLimit = transferEngine.submit(
+                new TransferRequest(from.getId(), to.getId(), Money.of("10.00"), "engine"), owner.getId());
+        ExecutionException rejected = assertThrows(ExecutionException.class, overLimit::get);
+        assertEquals("Daily transfer limit exceeded for card " + from.getId(), rejected.getCause().getMessage());
+    }
+
+    private User createUser() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        User user = new User();
+        user.setUsername("engine-" + suffix);
+        user.setPassword("not-used");
+        user.setFirstName("Engine");
+        user.setLastName("Test");
+        user.setEmail("engine-" + suffix + "@bank.com");
+        user.setRole(Role.USER);
+        return userRepository.save(user);
+    }
+
+    private Card createCard(User owner, Money balance) {
+        Card card = new Card();
+        card.setEncryptedNumber(UUID.randomUUID().toString());
+        card.setMaskedNumber("**** **** **** 0000");
+        card.setOwner(owner);
+        card.setCardHolderName("Engine Test");
+        card.setExpiryDate(LocalDate.now().plusYears(1));
+        card.setStatus(CardStatus.ACTIVE);
+        card.setBalance(balance);
+        return cardRepository.save(card);
+    }
+}
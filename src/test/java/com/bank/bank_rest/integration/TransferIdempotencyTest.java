@@ -0,0 +1,117 @@
+package com.bank.bank_rest.integration;
+
+import com.bank.bank_rest.dto.transfer.TransferRequest;
+import com.bank.bank_rest.dto.transfer.TransferResponse;
+import com.bank.bank_rest.model.Card;
+import com.bank.bank_rest.model.Money;
+import com.bank.bank_rest.model.User;
+import com.bank.bank_rest.model.enums.CardStatus;
+import com.bank.bank_rest.model.enums.Role;
+import com.bank.bank_rest.repository.CardRepository;
+import com.bank.bank_rest.repository.UserRepository;
+import com.bank.bank_rest.service.TransferService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TransferIdempotencyTest extends AbstractPostgresIntegrationTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void duplicatesFiredInParallelMoveMoneyOnce() throws Exception {
+        User owner = createUser();
+        Card from = createCard(owner);
+        Card to = createCard(owner);
+        TransferRequest request = new TransferRequest(from.getId(), to.getId(), Money.of("10.00"), "retry");
+        String key = UUID.randomUUID().toString();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<TransferResponse>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return transferService.transferMoney(request, owner.getId(), key);
+            }));
+        }
+        start.countDown();
+
+        List<Long> transferIds = new ArrayList<>();
+        for (Future<TransferResponse> future : futures) {
+            transferIds.add(future.get().getId());
+        }
+        executor.shutdown();
+
+        assertEquals(1, transferIds.stream().distinct().count());
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transfers WHERE from_card_id = ?", Long.class, from.getId()));
+        assertEquals(Money.of("90.00"), cardRepository.findById(from.getId()).orElseThrow().getBalance());
+
+        // A late retry, after the first response was stored, replays it as well
+        assertEquals(transferIds.get(0), transferService.transferMoney(request, owner.getId(), key).getId());
+    }
+
+    @Test
+    void keyReusedForDifferentTransferIsRejected() {
+        User owner = createUser();
+        Card from = createCard(owner);
+        Card to = createCard(owner);
+        String key = UUID.randomUUID().toString();
+
+        transferService.transferMoney(new TransferRequest(from.getId(), to.getId(), Money.of("10.00"), null),
+                owner.getId(), key);
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> transferService.transferMoney(
+                new TransferRequest(from.getId(), to.getId(), Money.of("20.00"), null), owner.getId(), key));
+        assertEquals("Idempotency-Key was already used for a different transfer", e.getMessage());
+    }
+
+    private User createUser() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        User user = new User();
+        user.setUsername("idem-" + suffix);
+        user.setPassword("not-used");
+        user.setFirstName("Idempotency");
+        user.setLastName("Test");
+        user.setEmail("idem-" + suffix + "@bank.com");
+        user.setRole(Role.USER);
+        return userRepository.save(user);
+    }
+
+    private Card createCard(User owner) {
+        Card card = new Card();
+        card.setEncryptedNumber(UUID.randomUUID().toString());
+        card.setMaskedNumber("**** **** **** 0000");
+        card.setOwner(owner);
+        card.setCardHolderName("Idempotency Test");
+        card.setExpiryDate(LocalDate.now().plusYears(1));
+        card.setStatus(CardStatus.ACTIVE);
+        card.setBalance(Money.of("100.00"));
+        return cardRepository.save(card);
+    }
+}
@@ -0,0 +1,187 @@
+package com.bank.bank_rest.integration;
+
+import com.bank.bank_rest.dto.card.CardResponse;
+import com.bank.bank_rest.dto.transfer.TransferRequest;
+import com.bank.bank_rest.model.Card;
+import com.bank.bank_rest.model.Money;
+import com.bank.bank_rest.model.User;
+import com.bank.bank_rest.model.enums.CardStatus;
+import com.bank.bank_rest.model.enums.Role;
+import com.bank.bank_rest.repository.CardRepository;
+import com.bank.bank_rest.repository.UserRepository;
+import com.bank.bank_rest.service.CardService;
+import com.bank.bank_rest.service.TransferEngine;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Changing a card through the service waits for its journaled transfers. A card deleted behind
+ * the engine's back leaves its transfer set aside, and the records behind it still reach the database.
+ */
+class TransferJournalDeadLetterTest extends AbstractPostgresIntegrationTest {
+
+    @DynamicPropertySource
+    static void engineProperties(DynamicPropertyRegistry registry) throws Exception {
+        String journal = Files.createTempDirectory("transfer-journal").resolve("journal.bin").toString();
+        registry.add("bank.transfer.engine.enabled", () -> "true");
+        registry.add("bank.transfer.engine.durability", () -> "JOURNAL");
+        registry.add("bank.transfer.engine.journal.path", () -> journal);
+    }
+
+    @Autowired
+    private TransferEngine transferEngine;
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void blockingCardWaitsForItsJournaledTransfers() throws Exception {
+        User owner = createUser();
+        Card from = createCard(owner);
+        Card to = createCard(owner);
+
+        // Loads the cards into the shard and waits for the first flush
+        transferEngine.submit(request(from, to), owner.getId()).get();
+        awaitTransfers(to, 1);
+
+        // Holding the source row stalls the flusher's balance update
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.queryForObject("SELECT id FROM cards WHERE id = ? FOR UPDATE", Long.class, from.getId());
+            locked.countDown();
+            try {
+                release.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        locked.await(10, TimeUnit.SECONDS);
+
+        transferEngine.submit(request(from, to), owner.getId()).get();
+        CompletableFuture<CardResponse> blocked = CompletableFuture.supplyAsync(
+                () -> cardService.updateCardStatus(to.getId(), CardStatus.BLOCKED, owner.getId()));
+        Thread.sleep(300);
+        assertFalse(blocked.isDone());
+
+        release.countDown();
+        holder.get(30, TimeUnit.SECONDS);
+        CardResponse response = blocked.get(30, TimeUnit.SECONDS);
+
+        assertEquals(CardStatus.BLOCKED, response.getStatus());
+        assertEquals(Money.of("102.00"), response.getBalance());
+        assertEquals(2, countTransfers(to));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM transfer_journal_dead_letters WHERE to_card_id = ?", Integer.class, to.getId()));
+        ExecutionException rejected = assertThrows(ExecutionException.class,
+                () -> transferEngine.submit(request(from, to), owner.getId()).get());
+        assertEquals("Destination card is not active", rejected.getCause().getMessage());
+    }
+
+    @Test
+    void transferToDeletedCardIsDeadLettered() throws Exception {
+        User owner = createUser();
+        Card from = createCard(owner);
+        Card deleted = createCard(owner);
+        Card other = createCard(owner);
+
+        // Holding the source row keeps the flusher away until the card is gone
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch submitted = new CountDownLatch(1);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.queryForObject("SELECT id FROM cards WHERE id = ? FOR UPDATE", Long.class, from.getId());
+            locked.countDown();
+            try {
+                submitted.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            jdbcTemplate.update("DELETE FROM cards WHERE id = ?", deleted.getId());
+        }));
+        locked.await(10, TimeUnit.SECONDS);
+
+        transferEngine.submit(request(from, deleted), owner.getId()).get();
+        submitted.countDown();
+        holder.get(30, TimeUnit.SECONDS);
+
+        transferEngine.submit(request(from, other), owner.getId()).get();
+        awaitTransfers(other, 1);
+
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM transfer_journal_dead_letters WHERE to_card_id = ?", Integer.class, deleted.getId()));
+        assertEquals(0, countTransfers(deleted));
+        // Only the transfer that was applied left the source card
+        assertEquals(0, new BigDecimal("99.00").compareTo(jdbcTemplate.queryForObject(
+                "SELECT balance FROM cards WHERE id = ?", BigDecimal.class, from.getId())));
+    }
+
+    private void awaitTransfers(Card to, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (countTransfers(to) < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(expected, countTransfers(to));
+    }
+
+    private int countTransfers(Card to) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM transfers WHERE to_card_id = ?",
+                Integer.class, to.getId());
+    }
+
+    private TransferRequest request(Card from, Card to) {
+        return new TransferRequest(from.getId(), to.getId(), Money.of("1.00"), "dead letter");
+    }
+
+    private User createUser() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        User user = new User();
+        user.setUsername("journal-" + suffix);
+        user.setPassword("not-used");
+        user.setFirstName("Journal");
+        user.setLastName("DeadLetter");
+        user.setEmail("journal-" + suffix + "@bank.com");
+        user.setRole(Role.USER);
+        return userRepository.save(user);
+    }
+
+    private Card createCard(User owner) {
+        Card card = new Card();
+        card.setEncryptedNumber(UUID.randomUUID().toString());
+        card.setMaskedNumber("**** **** **** 0000");
+        card.setOwner(owner);
+        card.setCardHolderName("Journal DeadLetter");
+        card.setExpiryDate(LocalDate.now().plusYears(1));
+        card.setStatus(CardStatus.ACTIVE);
+        card.setBalance(Money.of("100.00"));
+        return cardRepository.save(card);
+    }
+}
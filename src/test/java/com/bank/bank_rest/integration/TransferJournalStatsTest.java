@@ -0,0 +1,154 @@
+package com.bank.bank_rest.integration;
+
+import com.bank.bank_rest.dto.transfer.TransferRequest;
+import com.bank.bank_rest.model.Card;
+import com.bank.bank_rest.model.Money;
+import com.bank.bank_rest.model.User;
+import com.bank.bank_rest.model.enums.CardStatus;
+import com.bank.bank_rest.model.enums.Role;
+import com.bank.bank_rest.repository.CardRepository;
+import com.bank.bank_rest.repository.UserRepository;
+import com.bank.bank_rest.service.TransferEngine;
+import com.bank.bank_rest.service.TransferStatsRollup;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * A journaled transfer reaches the transfers table late but keeps its original date;
+ * the stats rollup must not move its watermark past it in the meantime.
+ */
+class TransferJournalStatsTest extends AbstractPostgresIntegrationTest {
+
+    @DynamicPropertySource
+    static void engineProperties(DynamicPropertyRegistry registry) throws Exception {
+        String journal = Files.createTempDirectory("transfer-journal").resolve("journal.bin").toString();
+        registry.add("bank.transfer.engine.enabled", () -> "true");
+        registry.add("bank.transfer.engine.durability", () -> "JOURNAL");
+        registry.add("bank.transfer.engine.journal.path", () -> journal);
+        registry.add("bank.transfer.stats.lag", () -> "PT0S");
+        registry.add("bank.transfer.stats.interval", () -> "PT1H");
+    }
+
+    @Autowired
+    private TransferEngine transferEngine;
+
+    @Autowired
+    private TransferStatsRollup rollup;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void lateFlushIsStillRolledUp() throws Exception {
+        User owner = createUser();
+        Card journalFrom = createCard(owner);
+        Card journalTo = createCard(owner);
+        Card syncFrom = createCard(owner);
+        Card syncTo = createCard(owner);
+
+        // Loads the cards into the shard and waits for the first flush
+        transferEngine.submit(request(journalFrom, journalTo), owner.getId()).get();
+        awaitTransfers(journalFrom, 1);
+
+        // Holding the source row stalls the flusher's balance update
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.queryForObject("SELECT id FROM cards WHERE id = ? FOR UPDATE", Long.class, journalFrom.getId());
+            locked.countDown();
+            try {
+                release.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        locked.await(10, TimeUnit.SECONDS);
+
+        // Acknowledged from the journal, not yet in the table
+        transferEngine.submit(request(journalFrom, journalTo), owner.getId()).get();
+        // A younger transfer that is in the table already; written directly, the synchronous path is off in this mode
+        Thread.sleep(10);
+        jdbcTemplate.update("INSERT INTO transfers (id, from_card_id, to_card_id, amount, transfer_date, description, " +
+                "successful) VALUES (nextval('transfers_id_seq'), ?, ?, 1.00, now(), 'younger', true)",
+                syncFrom.getId(), syncTo.getId());
+
+        rollup.refresh();
+
+        release.countDown();
+        holder.get(30, TimeUnit.SECONDS);
+        awaitTransfers(journalFrom, 2);
+        rollup.refresh();
+
+        assertEquals(2, outgoingCount(journalFrom));
+        assertEquals(1, outgoingCount(syncFrom));
+    }
+
+    private void awaitTransfers(Card from, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (countTransfers(from) < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(expected, countTransfers(from));
+    }
+
+    private int countTransfers(Card from) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM transfers WHERE from_card_id = ?",
+                Integer.class, from.getId());
+    }
+
+    private int outgoingCount(Card card) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(outgoing_count), 0) FROM transfer_daily_stats WHERE card_id = ?",
+                Integer.class, card.getId());
+    }
+
+    private TransferRequest request(Card from, Card to) {
+        return new TransferRequest(from.getId(), to.getId(), Money.of("1.00"), "late flush");
+    }
+
+    private User createUser() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        User user = new User();
+        user.setUsername("journal-" + suffix);
+        user.setPassword("not-used");
+        user.setFirstName("Journal");
+        user.setLastName("Stats");
+        user.setEmail("journal-" + suffix + "@bank.com");
+        user.setRole(Role.USER);
+        return userRepository.save(user);
+    }
+
+    private Card createCard(User owner) {
+        Card card = new Card();
+        card.setEncryptedNumber(UUID.randomUUID().toString());
+        card.setMaskedNumber("**** **** **** 0000");
+        card.setOwner(owner);
+        card.setCardHolderName("Journal Stats");
+        card.setExpiryDate(LocalDate.now().plusYears(1));
+        card.setStatus(CardStatus.ACTIVE);
+        card.setBalance(Money.of("100.00"));
+        return cardRepository.save(card);
+    }
+}
@@ -0,0 +1,185 @@
+package com.bank.bank_rest.integration;
+
+import com.bank.bank_rest.dto.transfer.BatchTransferRequest;
+import com.bank.bank_rest.dto.transfer.TransferRequest;
+import com.bank.bank_rest.model.Card;
+import com.bank.bank_rest.model.Money;
+import com.bank.bank_rest.model.User;
+import com.bank.bank_rest.model.enums.CardStatus;
+import com.bank.bank_rest.model.enums.Role;
+import com.bank.bank_rest.repository.CardRepository;
+import com.bank.bank_rest.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * With a journaling engine the database balance lags the acknowledged transfers, so the synchronous
+ * endpoints are refused and a card hit from both sides never goes below zero.
+ */
+class TransferJournalSyncPathTest extends AbstractPostgresIntegrationTest {
+
+    @DynamicPropertySource
+    static void engineProperties(DynamicPropertyRegistry registry) throws Exception {
+        String journal = Files.createTempDirectory("transfer-journal").resolve("journal.bin").toString();
+        registry.add("bank.transfer.engine.enabled", () -> "true");
+        registry.add("bank.transfer.engine.durability", () -> "JOURNAL");
+        registry.add("bank.transfer.engine.journal.path", () -> journal);
+    }
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).apply(springSecurity()).build();
+    }
+
+    @Test
+    void mixedPathsNeverOverdrawTheCard() throws Exception {
+        User owner = createUser();
+        Card from = createCard(owner);
+        Card to = createCard(owner);
+        String body = objectMapper.writeValueAsString(
+                new TransferRequest(from.getId(), to.getId(), Money.of("7.00"), "mixed"));
+
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<BigDecimal> lowest = new AtomicReference<>(new BigDecimal("100.00"));
+
+        // Samples the stored balance while the flusher writes, so a transient overdraft is seen too
+        ExecutorService executor = Executors.newFixedThreadPool(9);
+        Future<?> sampler = executor.submit(() -> {
+            while (!done.get()) {
+                BigDecimal balance = balance(from);
+                lowest.accumulateAndGet(balance, BigDecimal::min);
+            }
+        });
+
+        List<Future<?>> clients = new ArrayList<>();
+        for (int c = 0; c < 8; c++) {
+            clients.add(executor.submit(() -> {
+                for (int i = 0; i < 10; i++) {
+                    if (i % 2 == 0) {
+                        int status = mockMvc.perform(post("/api/transfers").with(user(owner))
+                                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                                .andReturn().getResponse().getStatus();
+                        if (status == 409) {
+                            refused.incrementAndGet();
+                        }
+                    } else {
+                        MvcResult started = mockMvc.perform(post("/api/transfers/async").with(user(owner))
+                                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                                .andReturn();
+                        if (mockMvc.perform(asyncDispatch(started)).andReturn().getResponse().getStatus() == 200) {
+                            accepted.incrementAndGet();
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> client : clients) {
+            client.get();
+        }
+
+        int batchStatus = mockMvc.perform(post("/api/transfers/batch").with(user(owner))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BatchTransferRequest(List.of(
+                                new TransferRequest(from.getId(), to.getId(), Money.of("7.00"), "batch"))))))
+                .andReturn().getResponse().getStatus();
+
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (countTransfers(from) < accepted.get() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        done.set(true);
+        sampler.get();
+        executor.shutdown();
+
+        assertEquals(40, refused.get());
+        assertEquals(409, batchStatus);
+        // 100.00 covers fourteen transfers of 7.00
+        assertEquals(14, accepted.get());
+        assertEquals(14, countTransfers(from));
+        assertEquals(0, new BigDecimal("2.00").compareTo(balance(from)));
+        assertTrue(lowest.get().signum() >= 0, "balance went down to " + lowest.get());
+    }
+
+    private BigDecimal balance(Card card) {
+        return jdbcTemplate.queryForObject("SELECT balance FROM cards WHERE id = ?", BigDecimal.class, card.getId());
+    }
+
+    private int countTransfers(Card from) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM transfers WHERE from_card_id = ?",
+                Integer.class, from.getId());
+    }
+
+    private User createUser() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        User user = new User();
+        user.setUsername("journal-" + suffix);
+        user.setPassword("not-used");
+        user.setFirstName("Journal");
+        user.setLastName("Mixed");
+        user.setEmail("journal-" + suffix + "@bank.com");
+        user.setRole(Role.USER);
+        return userRepository.save(user);
+    }
+
+    private Card createCard(User owner) {
+        Card card = new Card();
+        card.setEncryptedNumber(UUID.randomUUID().toString());
+        card.setMaskedNumber("**** **** **** 0000");
+        card.setOwner(owner);
+        card.setCardHolderName("Journal Mixed");
+        card.setExpiryDate(LocalDate.now().plusYears(1));
+        card.setStatus(CardStatus.ACTIVE);
+        card.setBalance(Money.of("100.00"));
+        return cardRepository.save(card);
+    }
+}
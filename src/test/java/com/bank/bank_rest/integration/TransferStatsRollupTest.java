@@ -0,0 +1,99 @@
+package com.bank.bank_rest.integration;
+
+import com.bank.bank_rest.dto.card.CardCreateRequest;
+import com.bank.bank_rest.dto.card.CardResponse;
+import com.bank.bank_rest.dto.transfer.TransferDailyStatsResponse;
+import com.bank.bank_rest.dto.transfer.TransferRequest;
+import com.bank.bank_rest.dto.transfer.TransferStatsResponse;
+import com.bank.bank_rest.model.Money;
+import com.bank.bank_rest.model.User;
+import com.bank.bank_rest.model.enums.Role;
+import com.bank.bank_rest.repository.UserRepository;
+import com.bank.bank_rest.service.CardService;
+import com.bank.bank_rest.service.TransferService;
+import com.bank.bank_rest.service.TransferStatsRollup;
+import com.bank.bank_rest.service.TransferStatsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * The rollup must count every transfer exactly once, across chunks and repeated runs.
+ */
+@TestPropertySource(properties = {
+        "bank.transfer.stats.lag=PT0S",
+        "bank.transfer.stats.chunk-size=2",
+        "bank.transfer.stats.interval=PT1H"
+})
+class TransferStatsRollupTest extends AbstractPostgresIntegrationTest {
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private TransferStatsRollup rollup;
+
+    @Autowired
+    private TransferStatsService transferStatsService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void rollupCountsEachTransferOnce() {
+        Long ownerId = createUser().getId();
+        CardResponse from = cardService.createCard(cardRequest(), ownerId);
+        CardResponse to = cardService.createCard(cardRequest(), ownerId);
+
+        for (int i = 0; i < 5; i++) {
+            transferService.transferMoney(new TransferRequest(from.getId(), to.getId(), Money.of("10.00"), null), ownerId);
+        }
+
+        rollup.refresh();
+        rollup.refresh();
+
+        TransferStatsResponse cardStats = transferStatsService.getStats(ownerId, from.getId(), null, null);
+        TransferDailyStatsResponse cardDay = cardStats.getDays().get(0);
+        assertEquals(1, cardStats.getDays().size());
+        assertEquals(5, cardDay.getOutgoingCount());
+        assertEquals(0, new BigDecimal("50.00").compareTo(cardDay.getOutgoingAmount()));
+        assertEquals(0, cardDay.getIncomingCount());
+        assertNotNull(cardStats.getCountedUpTo());
+
+        TransferDailyStatsResponse ownerDay = transferStatsService.getStats(ownerId, null, null, null).getDays().get(0);
+        assertEquals(LocalDate.now(), ownerDay.getDate());
+        assertEquals(5, ownerDay.getOutgoingCount());
+        assertEquals(5, ownerDay.getIncomingCount());
+        assertEquals(0, new BigDecimal("50.00").compareTo(ownerDay.getIncomingAmount()));
+    }
+
+    private CardCreateRequest cardRequest() {
+        CardCreateRequest request = new CardCreateRequest();
+        request.setCardHolderName("Stats Test");
+        request.setExpiryDate(LocalDate.now().plusYears(2));
+        request.setInitialBalance(new BigDecimal("100.00"));
+        return request;
+    }
+
+    private User createUser() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        User user = new User();
+        user.setUsername("stats-" + suffix);
+        user.setPassword("not-used");
+        user.setFirstName("Stats");
+        user.setLastName("Test");
+        user.setEmail("stats-" + suffix + "@bank.com");
+        user.setRole(Role.USER);
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,72 @@
+package com.bank.bank_rest.model;
+
+import com.bank.bank_rest.dto.card.CardCreateRequest;
+import com.bank.bank_rest.dto.transfer.TransferRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.ValueInstantiationException;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void decimalAmountsConvertExactly() {
+        assertEquals(12_345, Money.of("123.45").minorUnits());
+        assertEquals(12_340, Money.of(new BigDecimal("123.4")).minorUnits());
+        assertEquals(Money.of("1.10"), Money.of("1.1000"));
+        assertEquals(new BigDecimal("0.05"), Money.ofMinor(5).toBigDecimal());
+
+        IllegalArgumentException fraction = assertThrows(IllegalArgumentException.class, () -> Money.of("0.001"));
+        assertEquals("Amount must have at most 2 decimal places", fraction.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> Money.of("100000000000000000000"));
+    }
+
+    @Test
+    void arithmeticFailsOnOverflow() {
+        assertEquals(Money.of("0.30"), Money.of("0.10").plus(Money.of("0.20")));
+        assertEquals(Money.of("-0.10"), Money.of("0.10").minus(Money.of("0.20")));
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MAX_VALUE).plus(Money.ofMinor(1)));
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MIN_VALUE).negate());
+    }
+
+    @Test
+    void transferRequestReadsAndValidatesAmount() throws Exception {
+        TransferRequest request = objectMapper.readValue(
+                "{\"fromCardId\":1,\"toCardId\":2,\"amount\":10.5}", TransferRequest.class);
+        assertEquals(Money.of("10.50"), request.getAmount());
+        assertEquals("{\"amount\":10.50}", objectMapper.writeValueAsString(Map.of("amount", request.getAmount())));
+
+        assertThrows(ValueInstantiationException.class, () -> objectMapper.readValue(
+                "{\"fromCardId\":1,\"toCardId\":2,\"amount\":10.005}", TransferRequest.class));
+
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        request.setAmount(Money.ZERO);
+        assertEquals("Amount must be greater than 0", validator.validate(request).iterator().next().getMessage());
+        request.setAmount(Money.of("0.01"));
+        assertEquals(0, validator.validate(request).size());
+    }
+
+    @Test
+    void cardCreateRequestRejectsFractionsOfACent() {
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        CardCreateRequest request = new CardCreateRequest();
+        request.setCardNumber("4111111111111111");
+        request.setCardHolderName("Test Holder");
+        request.setExpiryDate(LocalDate.now().plusYears(1));
+
+        request.setInitialBalance(new BigDecimal("10.005"));
+        assertEquals("initialBalance", validator.validate(request).iterator().next().getPropertyPath().toString());
+        request.setInitialBalance(new BigDecimal("10.50"));
+        assertEquals(0, validator.validate(request).size());
+    }
+}
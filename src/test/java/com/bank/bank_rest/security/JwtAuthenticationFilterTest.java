@@ -0,0 +1,79 @@
+package com.bank.bank_rest.security;
+
+import com.bank.bank_rest.model.User;
+import com.bank.bank_rest.model.enums.Role;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+
+    private static final String SECRET = "MyBankJWTSecretKeyForTestsOnlyMustBeAtLeast256BitsLong1234567890";
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    private JwtTokenProvider jwtTokenProvider;
+    private JwtAuthenticationFilter filter;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        jwtTokenProvider = new JwtTokenProvider(SECRET, 3_600_000);
+        VerifiedTokenCache tokenCache = new VerifiedTokenCache(false, 100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+        filter = new JwtAuthenticationFilter(jwtTokenProvider, userDetailsService, tokenCache);
+
+        user = new User();
+        user.setId(1L);
+        user.setUsername("alice");
+        user.setRole(Role.USER);
+        when(userDetailsService.loadUserByUsername("alice")).thenReturn(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void enabledUserIsAuthenticated() throws Exception {
+        String token = jwtTokenProvider.generateToken(user);
+
+        filter.doFilter(request(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertEquals(user, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+    }
+
+    @Test
+    void disabledUsersTokenIsRejected() throws Exception {
+        // Issued while the account was still enabled
+        String token = jwtTokenProvider.generateToken(user);
+        user.setEnabled(false);
+
+        filter.doFilter(request(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    private MockHttpServletRequest request(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/cards");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+}
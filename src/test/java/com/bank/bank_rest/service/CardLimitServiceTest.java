@@ -0,0 +1,106 @@
+package com.bank.bank_rest.service;
+
+import com.bank.bank_rest.model.Card;
+import com.bank.bank_rest.model.Money;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class CardLimitServiceTest {
+
+    // Returns no rows, so every card starts with nothing spent
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private CardLimitService cardLimitService;
+
+    private Card card;
+
+    @BeforeEach
+    void setUp() {
+        card = new Card();
+        card.setId(1L);
+        card.setDailyLimit(new BigDecimal("100.00"));
+        card.setMonthlyLimit(new BigDecimal("150.00"));
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void rejectsTransferOverDailyLimit() {
+        cardLimitService.reserve(card, Money.of("60.00"));
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> cardLimitService.reserve(card, Money.of("50.00")));
+
+        assertEquals("Daily transfer limit exceeded for card 1", e.getMessage());
+        assertEquals(0, new BigDecimal("60.00").compareTo(cardLimitService.getLimits(card).getSpentToday()));
+    }
+
+    @Test
+    void rejectsTransferOverMonthlyLimit() {
+        card.setDailyLimit(null);
+        cardLimitService.reserve(card, Money.of("150.00"));
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> cardLimitService.reserve(card, Money.of("0.01")));
+
+        assertEquals("Monthly transfer limit exceeded for card 1", e.getMessage());
+    }
+
+    @Test
+    void rollbackReleasesReservation() {
+        TransactionSynchronizationManager.initSynchronization();
+        cardLimitService.reserve(card, Money.of("100.00"));
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertEquals(0, BigDecimal.ZERO.compareTo(cardLimitService.getLimits(card).getSpentToday()));
+        assertDoesNotThrow(() -> cardLimitService.reserve(card, Money.of("100.00")));
+    }
+
+    @Test
+    void cardsWithoutLimitsAreNotTracked() {
+        card.setDailyLimit(null);
+        card.setMonthlyLimit(null);
+
+        cardLimitService.reserve(card, Money.of("1000000.00"));
+
+        assertEquals(null, cardLimitService.getLimits(card).getSpentToday());
+    }
+
+    @Test
+    void cardIdIsBoundNotConcatenated() {
+        cardLimitService.reserve(card, Money.of("10.00"));
+
+        verify(jdbcTemplate).query(endsWith("c.id = ?"), any(RowCallbackHandler.class),
+                eq(LocalDate.now().withDayOfMonth(1)), eq(1L));
+    }
+}
@@ -3,6 +3,7 @@ package com.bank.bank_rest.service;
 import com.bank.bank_rest.dto.card.CardCreateRequest;
 import com.bank.bank_rest.dto.card.CardResponse;
 import com.bank.bank_rest.model.Card;
+import com.bank.bank_rest.model.Money;
 import com.bank.bank_rest.model.User;
 import com.bank.bank_rest.model.enums.CardStatus;
 import com.bank.bank_rest.model.enums.Role;
@@ -53,6 +54,15 @@ class CardServiceTest {
     @Mock
     private CardNumberGenerator cardNumberGenerator;
 
+    @Mock
+    private CardBalanceSummaryService cardBalanceSummaryService;
+
+    @Mock
+    private CardLimitService cardLimitService;
+
+    @Mock
+    private TransferEngine transferEngine;
+
     @Mock
     private SecurityContext securityContext;
 
@@ -83,7 +93,7 @@ class CardServiceTest {
         testCard.setCardHolderName("Test User");
         testCard.setExpiryDate(LocalDate.now().plusYears(1));
         testCard.setStatus(CardStatus.ACTIVE);
-        testCard.setBalance(BigDecimal.valueOf(1000.00));
+        testCard.setBalance(Money.of("1000.00"));
     }
 
     @Test
@@ -99,7 +109,8 @@ class CardServiceTest {
         when(cardEncryptionUtil.encryptCardNumber("1234567890123456")).thenReturn("encrypted123");
         when(cardEncryptionUtil.maskCardNumber("1234567890123456")).thenReturn("**** **** **** 3456");
         when(cardNumberGenerator.isValidCardNumber("1234567890123456")).thenReturn(true);
-        when(cardRepository.findByEncryptedNumber(anyString())).thenReturn(Optional.empty());
+        when(cardEncryptionUtil.hashCardNumber("1234567890123456")).thenReturn("hash123");
+        when(cardRepository.existsByNumberHash("hash123")).thenReturn(false);
         when(cardRepository.save(any(Card.class))).thenReturn(testCard);
 
         // When
@@ -110,6 +121,7 @@ class CardServiceTest {
         assertEquals(testCard.getId(), response.getId());
         verify(userRepository).findById(1L);
         verify(cardRepository).save(any(Card.class));
+        verify(cardBalanceSummaryService).cardAdded(any(Card.class));
     }
 
     @Test
@@ -126,8 +138,8 @@ class CardServiceTest {
     void testGetCards_UserAsCurrentUser() {
         // Given
         mockUserAuthentication();
-        when(cardRepository.findByOwnerWithFilters(anyLong(), eq(null), eq(null), any(Pageable.class)))
-            .thenReturn(new PageImpl<>(List.of(testCard)));
+        when(cardRepository.findResponsesByOwnerWithFilters(anyLong(), eq(null), eq(null), eq(null), any(Pageable.class)))
+            .thenReturn(new PageImpl<>(List.of(new CardResponse())));
 
         // When
         Page<CardResponse> result = cardService.getCards(null, 1L);
@@ -135,7 +147,7 @@ class CardServiceTest {
         // Then
         assertNotNull(result);
         assertEquals(1, result.getContent().size());
-        verify(cardRepository).findByOwnerWithFilters(eq(1L), isNull(), isNull(), any(Pageable.class));
+        verify(cardRepository).findResponsesByOwnerWithFilters(eq(1L), isNull(), isNull(), isNull(), any(Pageable.class));
     }
 
     @Test
@@ -167,14 +179,14 @@ class CardServiceTest {
 
     private void mockUserAuthentication() {
         GrantedAuthority userAuthority = new SimpleGrantedAuthority("USER");
-        when(authentication.getAuthorities()).thenReturn(List.of(userAuthority));
+        doReturn(List.of(userAuthority)).when(authentication).getAuthorities();
         when(securityContext.getAuthentication()).thenReturn(authentication);
         SecurityContextHolder.setContext(securityContext);
     }
 
     private void mockAdminAuthentication() {
         GrantedAuthority adminAuthority = new SimpleGrantedAuthority("ADMIN");
-        when(authentication.getAuthorities()).thenReturn(List.of(adminAuthority));
+        doReturn(List.of(adminAuthority)).when(authentication).getAuthorities();
         when(securityContext.getAuthentication()).thenReturn(authentication);
         SecurityContextHolder.setContext(securityContext);
     }
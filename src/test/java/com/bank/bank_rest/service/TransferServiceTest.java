@@ -1,24 +1,31 @@
 package com.bank.bank_rest.service;
 
+import com.bank.bank_rest.config.TransferProperties;
 import com.bank.bank_rest.dto.transfer.TransferRequest;
 import com.bank.bank_rest.dto.transfer.TransferResponse;
 import com.bank.bank_rest.model.Card;
+import com.bank.bank_rest.model.Money;
 import com.bank.bank_rest.model.User;
 import com.bank.bank_rest.model.enums.CardStatus;
 import com.bank.bank_rest.model.enums.Role;
 import com.bank.bank_rest.repository.TransferRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.*;
 import org.junit.jupiter.api.Disabled;
 
@@ -32,6 +39,24 @@ class TransferServiceTest {
     @Mock
     private CardService cardService;
 
+    @Mock
+    private CardBalanceSummaryService cardBalanceSummaryService;
+
+    @Mock
+    private CardLimitService cardLimitService;
+
+    @Mock
+    private TransferIdempotencyService transferIdempotencyService;
+
+    @Spy
+    private TransferProperties transferProperties = new TransferProperties();
+
+    @Spy
+    private TransactionOperations transactionOperations = TransactionOperations.withoutTransaction();
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private TransferService transferService;
 
@@ -50,29 +75,28 @@ class TransferServiceTest {
         fromCard = new Card();
         fromCard.setId(1L);
         fromCard.setOwner(testUser);
-        fromCard.setBalance(BigDecimal.valueOf(1000.00));
+        fromCard.setBalance(Money.of("1000.00"));
         fromCard.setStatus(CardStatus.ACTIVE);
         fromCard.setExpiryDate(LocalDate.now().plusYears(1));
 
         toCard = new Card();
         toCard.setId(2L);
         toCard.setOwner(testUser);
-        toCard.setBalance(BigDecimal.valueOf(500.00));
+        toCard.setBalance(Money.of("500.00"));
         toCard.setStatus(CardStatus.ACTIVE);
         toCard.setExpiryDate(LocalDate.now().plusYears(1));
 
         transferRequest = new TransferRequest();
         transferRequest.setFromCardId(1L);
         transferRequest.setToCardId(2L);
-        transferRequest.setAmount(BigDecimal.valueOf(100.00));
+        transferRequest.setAmount(Money.of("100.00"));
         transferRequest.setDescription("Test transfer");
     }
 
     @Test
     void testTransferMoney_Success() {
         // Given
-        when(cardService.getCardById(1L)).thenReturn(fromCard);
-        when(cardService.getCardById(2L)).thenReturn(toCard);
+        when(cardService.getCardsForUpdate(anyCollection())).thenReturn(Map.of(1L, fromCard, 2L, toCard));
         when(cardService.updateCardBalance(any(Card.class))).thenReturn(fromCard);
         when(cardService.updateCardBalance(any(Card.class))).thenReturn(toCard);
         when(transferRepository.save(any())).thenReturn(new com.bank.bank_rest.model.Transfer());
@@ -96,9 +120,8 @@ class TransferServiceTest {
     @Test
     void testTransferMoney_InsufficientBalance() {
         // Given
-        fromCard.setBalance(BigDecimal.valueOf(50.00)); // Less than transfer amount
-        when(cardService.getCardById(1L)).thenReturn(fromCard);
-        when(cardService.getCardById(2L)).thenReturn(toCard);
+        fromCard.setBalance(Money.of("50.00")); // Less than transfer amount
+        when(cardService.getCardsForUpdate(anyCollection())).thenReturn(Map.of(1L, fromCard, 2L, toCard));
 
         // When & Then
         assertThrows(RuntimeException.class, () -> 
@@ -109,7 +132,7 @@ class TransferServiceTest {
     void testTransferMoney_SameCard() {
         // Given
         transferRequest.setToCardId(1L); // Same as from card
-        when(cardService.getCardById(1L)).thenReturn(fromCard);
+        when(cardService.getCardsForUpdate(anyCollection())).thenReturn(Map.of(1L, fromCard));
 
         // When & Then
         assertThrows(RuntimeException.class, () -> 
@@ -123,8 +146,7 @@ class TransferServiceTest {
         differentUser.setId(999L);
         fromCard.setOwner(differentUser);
         
-        when(cardService.getCardById(1L)).thenReturn(fromCard);
-        when(cardService.getCardById(2L)).thenReturn(toCard);
+        when(cardService.getCardsForUpdate(anyCollection())).thenReturn(Map.of(1L, fromCard, 2L, toCard));
 
         // When & Then
         assertThrows(RuntimeException.class, () -> 
@@ -134,9 +156,8 @@ class TransferServiceTest {
     @Test
     void testTransferMoney_InvalidAmount() {
         // Given
-        transferRequest.setAmount(BigDecimal.valueOf(-100.00)); // Negative amount
-        when(cardService.getCardById(1L)).thenReturn(fromCard);
-        when(cardService.getCardById(2L)).thenReturn(toCard);
+        transferRequest.setAmount(Money.of("-100.00")); // Negative amount
+        when(cardService.getCardsForUpdate(anyCollection())).thenReturn(Map.of(1L, fromCard, 2L, toCard));
 
         // When & Then
         assertThrows(RuntimeException.class, () -> 
@@ -146,9 +167,8 @@ class TransferServiceTest {
     @Test
     void testTransferMoney_ZeroAmount() {
         // Given
-        transferRequest.setAmount(BigDecimal.ZERO);
-        when(cardService.getCardById(1L)).thenReturn(fromCard);
-        when(cardService.getCardById(2L)).thenReturn(toCard);
+        transferRequest.setAmount(Money.ZERO);
+        when(cardService.getCardsForUpdate(anyCollection())).thenReturn(Map.of(1L, fromCard, 2L, toCard));
 
         // When & Then
         assertThrows(RuntimeException.class, () -> 
@@ -159,8 +179,7 @@ class TransferServiceTest {
     void testTransferMoney_CardCannotTransfer() {
         // Given
         fromCard.setStatus(CardStatus.BLOCKED); // Card is blocked
-        when(cardService.getCardById(1L)).thenReturn(fromCard);
-        when(cardService.getCardById(2L)).thenReturn(toCard);
+        when(cardService.getCardsForUpdate(anyCollection())).thenReturn(Map.of(1L, fromCard, 2L, toCard));
 
         // When & Then
         assertThrows(RuntimeException.class, () -> 
@@ -0,0 +1,108 @@
+package com.bank.bank_rest.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TransferJournalTest {
+
+    private static final Duration TIMEOUT = Duration.ofMillis(100);
+    private static final LocalDateTime DATE = LocalDateTime.of(2025, 3, 14, 15, 9, 26, 535_897_000);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void reopenedJournalReplaysRecordsPastTheCheckpoint() {
+        Path path = dir.resolve("journal.bin");
+        try (TransferJournal journal = TransferJournal.open(path, 8)) {
+            List<TransferJournal.Entry> written = journal.append(List.of(entry(101, "rent"), entry(102, null)), TIMEOUT);
+            assertEquals(1, written.get(0).seq());
+            assertEquals(2, written.get(1).seq());
+            journal.checkpoint(1);
+        }
+
+        try (TransferJournal journal = TransferJournal.open(path, 8)) {
+            List<TransferJournal.Entry> unflushed = journal.readUnflushed(10);
+            assertEquals(1, unflushed.size());
+            TransferJournal.Entry entry = unflushed.get(0);
+            assertEquals(2, entry.seq());
+            assertEquals(102, entry.transferId());
+            assertEquals(1234, entry.amountMinor());
+            assertEquals(DATE, entry.transferDate());
+            assertNull(entry.description());
+
+            // Numbering carries on after the recovered record
+            assertEquals(3, journal.append(List.of(entry(103, "")), TIMEOUT).get(0).seq());
+        }
+    }
+
+    @Test
+    void tornRecordEndsTheJournal() throws Exception {
+        Path path = dir.resolve("journal.bin");
+        try (TransferJournal journal = TransferJournal.open(path, 8)) {
+            journal.append(List.of(entry(101, "a"), entry(102, "b"), entry(103, "c")), TIMEOUT);
+        }
+
+        // Flip a byte inside the second record's amount
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(4096 + 1088 + 32);
+            file.write(0x7f);
+        }
+
+        try (TransferJournal journal = TransferJournal.open(path, 8)) {
+            List<TransferJournal.Entry> unflushed = journal.readUnflushed(10);
+            assertEquals(1, unflushed.size());
+            assertEquals("a", unflushed.get(0).description());
+        }
+    }
+
+    @Test
+    void fullRingWaitsForTheCheckpoint() {
+        try (TransferJournal journal = TransferJournal.open(dir.resolve("journal.bin"), 2)) {
+            journal.append(List.of(entry(101, "a"), entry(102, "b")), TIMEOUT);
+            assertThrows(IllegalStateException.class, () -> journal.append(List.of(entry(103, "c")), TIMEOUT));
+
+            // Once flushed, the slots are reused and the ring wraps around
+            journal.checkpoint(2);
+            journal.append(List.of(entry(103, "c"), entry(104, "d")), TIMEOUT);
+            List<TransferJournal.Entry> unflushed = journal.readUnflushed(10);
+            assertEquals(List.of(3L, 4L), unflushed.stream().map(TransferJournal.Entry::seq).toList());
+            assertEquals("d", unflushed.get(1).description());
+        }
+    }
+
+    @Test
+    void oldestUnflushedDateIgnoresFlushedRecords() {
+        try (TransferJournal journal = TransferJournal.open(dir.resolve("journal.bin"), 8)) {
+            assertNull(journal.oldestUnflushedDate());
+
+            // A shard that stamped its batch earlier may append after one that stamped later
+            journal.append(List.of(dated(101, DATE.plusSeconds(5)), dated(102, DATE.plusSeconds(1)),
+                    dated(103, DATE.plusSeconds(9))), TIMEOUT);
+            assertEquals(DATE.plusSeconds(1), journal.oldestUnflushedDate());
+
+            journal.checkpoint(2);
+            assertEquals(DATE.plusSeconds(9), journal.oldestUnflushedDate());
+            journal.checkpoint(3);
+            assertNull(journal.oldestUnflushedDate());
+        }
+    }
+
+    private TransferJournal.Entry dated(long transferId, LocalDateTime transferDate) {
+        return new TransferJournal.Entry(0, transferId, 1, 2, 1234, transferDate, null);
+    }
+
+    private TransferJournal.Entry entry(long transferId, String description) {
+        return new TransferJournal.Entry(0, transferId, 1, 2, 1234, DATE, description);
+    }
+}